@@ -0,0 +1,22 @@
+-- MySQL schema for phegon_hotel_db. spring.jpa.hibernate.ddl-auto=update creates the other tables;
+-- rooms is listed here because room search relies on its capacity column and indexes.
+
+CREATE DATABASE IF NOT EXISTS phegon_hotel_db;
+USE phegon_hotel_db;
+
+CREATE TABLE IF NOT EXISTS rooms (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    room_type VARCHAR(255),
+    room_price DECIMAL(38, 2),
+    room_photo_url VARCHAR(255),
+    room_description VARCHAR(255),
+    capacity INT NULL,
+    PRIMARY KEY (id),
+    KEY idx_rooms_type_price (room_type, room_price),
+    KEY idx_rooms_price (room_price)
+) ENGINE = InnoDB;
+
+-- Databases created before room search: capacity stays NULL (any guest count) until set per room
+-- ALTER TABLE rooms ADD COLUMN capacity INT NULL;
+-- CREATE INDEX idx_rooms_type_price ON rooms (room_type, room_price);
+-- CREATE INDEX idx_rooms_price ON rooms (room_price);
@@ -0,0 +1,66 @@
+package com.phegondev.PhegonHotel.benchmarks;
+
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.utils.DateRange;
+import com.phegondev.PhegonHotel.utils.DayBitmap;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability check for one requested stay against a room's bookings.
+ * BookingService.roomIsAvailable (a stream over all of the room's bookings) was replaced by the
+ * DateRange overlap rule and the DayBitmap index; listScan is that same linear check with the
+ * current rule, bitmap is what RoomAvailabilityIndex does per room.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    private static final int HORIZON_DAYS = 731;
+
+    @Param({"100", "10000", "100000"})
+    private int bookingCount;
+
+    private List<Booking> bookings;
+    private DayBitmap nights;
+    private DateRange request;
+
+    @Setup
+    public void setUp() {
+        bookings = BenchmarkData.bookings(bookingCount);
+        nights = new DayBitmap(HORIZON_DAYS);
+        for (Booking booking : bookings) {
+            nights.set(offset(booking.getCheckInDate()), offset(booking.getCheckOutDate()));
+        }
+        // Past the last stay, so every booking has to be looked at by the scan
+        LocalDate checkIn = BenchmarkData.FIRST_NIGHT.plusDays(728);
+        request = DateRange.of(checkIn, checkIn.plusDays(2));
+    }
+
+    @Benchmark
+    public boolean listScan() {
+        for (Booking booking : bookings) {
+            if (request.overlaps(booking.getCheckInDate(), booking.getCheckOutDate())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean bitmap() {
+        return nights.isClear(offset(request.start()), offset(request.end()));
+    }
+
+    private static int offset(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(BenchmarkData.FIRST_NIGHT, date);
+    }
+}
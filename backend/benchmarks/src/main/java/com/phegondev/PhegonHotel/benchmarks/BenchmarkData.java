@@ -0,0 +1,72 @@
+package com.phegondev.PhegonHotel.benchmarks;
+
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic synthetic entities shared by the benchmarks (fixed seed, so runs are comparable)
+final class BenchmarkData {
+
+    static final LocalDate FIRST_NIGHT = LocalDate.of(2030, 1, 1);
+    static final String[] ROOM_TYPES = {"Single", "Double", "Deluxe", "Suite", "Family"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Room> rooms(int count) {
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Room room = new Room();
+            room.setId((long) i + 1);
+            room.setRoomType(ROOM_TYPES[i % ROOM_TYPES.length]);
+            room.setRoomPrice(BigDecimal.valueOf(1500 + (i % 20) * 250L));
+            room.setRoomPhotoUrl("/images/ab/cd/" + Long.toHexString(i * 2654435761L) + ".jpg");
+            room.setRoomDescription("Room " + i + " with a view of the river and a king size bed");
+            rooms.add(room);
+        }
+        return rooms;
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setName("Guest " + i);
+            user.setEmail("guest" + i + "@example.com");
+            user.setPhoneNumber("08" + String.format("%08d", i));
+            user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+            user.setRole("USER");
+            users.add(user);
+        }
+        return users;
+    }
+
+    // Stays of 1-7 nights spread over two years, linked to a small pool of rooms and users
+    static List<Booking> bookings(int count) {
+        List<Room> rooms = rooms(50);
+        List<User> users = users(200);
+        Random random = new Random(42);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(720));
+            Booking booking = new Booking();
+            booking.setId((long) i + 1);
+            booking.setCheckInDate(checkIn);
+            booking.setCheckOutDate(checkIn.plusDays(1 + random.nextInt(7)));
+            booking.setNumOfAdults(1 + random.nextInt(3));
+            booking.setNumOfChildren(random.nextInt(3));
+            booking.setBookingConfirmationCode("CODE" + i);
+            booking.setRoom(rooms.get(i % rooms.size()));
+            booking.setUser(users.get(i % users.size()));
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+}
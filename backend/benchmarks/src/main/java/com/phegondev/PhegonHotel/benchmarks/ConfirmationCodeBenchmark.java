@@ -0,0 +1,27 @@
+package com.phegondev.PhegonHotel.benchmarks;
+
+import com.phegondev.PhegonHotel.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Utils.generateRandomConfirmationCode shares one SecureRandom, so it is also measured under contention
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfirmationCodeBenchmark {
+
+    @Benchmark
+    public String singleThread() {
+        return Utils.generateRandomConfirmationCode(10);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String eightThreads() {
+        return Utils.generateRandomConfirmationCode(10);
+    }
+}
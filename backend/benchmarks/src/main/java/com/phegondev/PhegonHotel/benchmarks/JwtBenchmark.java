@@ -0,0 +1,49 @@
+package com.phegondev.PhegonHotel.benchmarks;
+
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.utils.JWTUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Login issues a token; every authenticated request parses and validates one
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTUtils jwtUtils;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JWTUtils();
+        user = BenchmarkData.users(1).get(0);
+        token = jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public boolean parseAndValidate() {
+        return jwtUtils.isValidToken(token, user);
+    }
+
+    @Benchmark
+    public boolean fullCycle() {
+        return jwtUtils.isValidToken(jwtUtils.generateToken(user), user);
+    }
+}
@@ -0,0 +1,59 @@
+package com.phegondev.PhegonHotel.benchmarks;
+
+import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.UserDTO;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity-to-DTO list mappers used by every listing endpoint
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private List<Room> rooms;
+    private List<User> users;
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        rooms = BenchmarkData.rooms(size);
+        users = BenchmarkData.users(size);
+        bookings = BenchmarkData.bookings(size);
+    }
+
+    @Benchmark
+    public List<RoomDTO> rooms() {
+        return Utils.mapRoomListEntityToRoomListDTO(rooms);
+    }
+
+    @Benchmark
+    public List<UserDTO> users() {
+        return Utils.mapUserListEntityToUserListDTO(users);
+    }
+
+    @Benchmark
+    public List<BookingDTO> bookings() {
+        return Utils.mapBookingListEntityToBookingListDTO(bookings);
+    }
+
+    @Benchmark
+    public List<BookingDTO> bookingsWithRoomAndUser() {
+        return bookings.stream()
+                .map(booking -> Utils.mapBookingEntityToBookingDTOPlusBookedRooms(booking, true))
+                .toList();
+    }
+}
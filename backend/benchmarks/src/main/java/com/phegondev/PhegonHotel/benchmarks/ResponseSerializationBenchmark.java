@@ -0,0 +1,60 @@
+package com.phegondev.PhegonHotel.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.phegondev.PhegonHotel.config.SparseFieldsFilter;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of the Response envelope, with the ObjectMapper setup JacksonConfig gives Spring MVC
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private Response roomList;
+    private Response bookingList;
+
+    @Setup
+    public void setUp() {
+        // The DTOs carry @JsonFilter, so serializing them needs the filter registered
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new BlackbirdModule())
+                .filters(SparseFieldsFilter.allFields())
+                .build();
+
+        roomList = new Response();
+        roomList.setStatusCode(200);
+        roomList.setMessage("successful");
+        roomList.setRoomList(Utils.mapRoomListEntityToRoomListDTO(BenchmarkData.rooms(size)));
+
+        bookingList = new Response();
+        bookingList.setStatusCode(200);
+        bookingList.setMessage("successful");
+        bookingList.setBookingList(BenchmarkData.bookings(size).stream()
+                .map(booking -> Utils.mapBookingEntityToBookingDTOPlusBookedRooms(booking, true))
+                .toList());
+    }
+
+    @Benchmark
+    public byte[] roomList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(roomList);
+    }
+
+    @Benchmark
+    public byte[] bookingList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookingList);
+    }
+}
@@ -0,0 +1,14 @@
+package com.phegondev.PhegonHotel.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Cache names for the room catalog; sizes, TTL and the cache provider come from spring.cache.* properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ROOMS = "rooms";
+    public static final String ROOM_TYPES = "roomTypes";
+    public static final String ROOM_BY_ID = "roomById";
+}
@@ -0,0 +1,82 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.dto.BulkBookingResult;
+import com.phegondev.PhegonHotel.dto.DateSuggestionDTO;
+import com.phegondev.PhegonHotel.dto.OccupancyStatsDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.UserDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Response encodings. Besides JSON, every endpoint answers in Smile ({@code Accept: application/x-jackson-smile})
+ * or CBOR ({@code Accept: application/cbor}): the same document in binary, smaller and cheaper to write.
+ * All three mappers come from Boot's builder, so they share modules, date handling and the sparse-fields
+ * filter. Blackbird swaps reflective getter calls for generated accessors, and the serializers of the
+ * response DTOs are built once at startup instead of on the first request that needs them.
+ */
+@Configuration
+public class JacksonConfig {
+    private static final Logger logger = LoggerFactory.getLogger(JacksonConfig.class);
+
+    private static final List<Class<?>> RESPONSE_TYPES = List.of(Response.class, RoomDTO.class, BookingDTO.class,
+            UserDTO.class, BulkBookingResult.class, OccupancyStatsDTO.class, DateSuggestionDTO.class);
+
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsCustomizer() {
+        return builder -> builder.filters(SparseFieldsFilter.allFields());
+    }
+
+    // Boot's builder bean is a prototype, so setting the factory here does not leak into the JSON mapper
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precomputeSerializers(ApplicationReadyEvent event) {
+        for (AbstractJackson2HttpMessageConverter converter
+                : event.getApplicationContext().getBeansOfType(AbstractJackson2HttpMessageConverter.class).values()) {
+            ObjectMapper objectMapper = converter.getObjectMapper();
+            // Provider instances share the mapper's serializer cache
+            SerializerProvider provider = objectMapper.getSerializerProviderInstance();
+            for (Class<?> type : RESPONSE_TYPES) {
+                try {
+                    provider.findValueSerializer(type);
+                } catch (JsonMappingException e) {
+                    logger.warn("Could not build the {} serializer for {}", objectMapper.getFactory().getFormatName(),
+                            type.getSimpleName(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every controller and service method. Besides class and method, each sample is tagged with
+ * the statusCode of the Response envelope, since services report failures there instead of throwing.
+ * Exposed as hotel.controller and hotel.service (see /actuator/prometheus).
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+    private static final String NO_STATUS = "none";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.phegondev.PhegonHotel.controller..*(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("hotel.controller", joinPoint);
+    }
+
+    @Around("execution(* com.phegondev.PhegonHotel.service.interfac..*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("hotel.service", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String statusCode = NO_STATUS;
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            statusCode = statusCodeOf(result);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("statusCode", statusCode)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String statusCodeOf(Object result) {
+        if (result instanceof ResponseEntity<?> entity) {
+            if (entity.getBody() instanceof Response response) {
+                return String.valueOf(response.getStatusCode());
+            }
+            return String.valueOf(entity.getStatusCode().value());
+        }
+        if (result instanceof Response response) {
+            return String.valueOf(response.getStatusCode());
+        }
+        return NO_STATUS;
+    }
+}
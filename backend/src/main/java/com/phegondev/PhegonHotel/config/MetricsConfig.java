@@ -0,0 +1,30 @@
+package com.phegondev.PhegonHotel.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+// Hibernate session/entity/cache counters and Hikari pool gauges are bound by Spring Boot;
+// this adds per-query execution timers (hibernate.query), which Boot does not register by itself.
+@Configuration
+public class MetricsConfig {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindHibernateQueryMetrics() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        if (sessionFactory.getStatistics().isStatisticsEnabled()) {
+            HibernateQueryMetrics.monitor(meterRegistry, sessionFactory, "entityManagerFactory");
+        }
+    }
+}
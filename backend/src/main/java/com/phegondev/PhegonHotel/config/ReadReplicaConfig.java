@@ -0,0 +1,77 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.phegondev.PhegonHotel.utils.JWTUtils;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write splitting, switched on by setting app.datasource.replica.url. The primary pool is
+ * configured by spring.datasource.* as before, the replica pool by app.datasource.replica.*
+ * (username, password and driver default to the primary's). The application DataSource becomes
+ * a lazy proxy over ReadWriteRoutingDataSource; see ReplicaRouting for when the replica is used.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, Environment environment) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(environment.getRequiredProperty("app.datasource.replica.url"))
+                .username(environment.getProperty("app.datasource.replica.username", primary.determineUsername()))
+                .password(environment.getProperty("app.datasource.replica.password", primary.determinePassword()))
+                .driverClassName(environment.getProperty("app.datasource.replica.driver-class-name",
+                        primary.determineDriverClassName()))
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRouting replicaRouting(@Qualifier("primaryDataSource") DataSource primary,
+                                         @Qualifier("replicaDataSource") DataSource replica,
+                                         Environment environment, JWTUtils jwtUtils,
+                                         MeterRegistry meterRegistry) {
+        return new ReplicaRouting(primary, replica,
+                environment.getProperty("app.datasource.replica.max-lag", Duration.class, Duration.ofSeconds(2)),
+                environment.getProperty("app.datasource.replica.sticky-window", Duration.class, Duration.ofSeconds(5)),
+                jwtUtils, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaReadAspect replicaReadAspect(ReplicaRouting replicaRouting) {
+        return new ReplicaReadAspect(replicaRouting);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaRouting replicaRouting) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, replicaRouting));
+    }
+}
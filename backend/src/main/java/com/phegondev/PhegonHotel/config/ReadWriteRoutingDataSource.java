@@ -0,0 +1,54 @@
+package com.phegondev.PhegonHotel.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Picks the primary or the replica pool when a connection is first used. It must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction's read-only flag is only known after the
+ * transaction manager has asked for its connection.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final ReplicaRouting routing;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaRouting routing) {
+        this.routing = routing;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return routing.useReplica() ? REPLICA : PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String user = ReplicaRouting.currentUser();
+            if (user != null) {
+                StickToPrimary stick = new StickToPrimary(routing, user);
+                if (!TransactionSynchronizationManager.getSynchronizations().contains(stick)) {
+                    TransactionSynchronizationManager.registerSynchronization(stick);
+                }
+            }
+        }
+        return PRIMARY;
+    }
+
+    // Once the write transaction commits, the user's next reads must see it
+    private record StickToPrimary(ReplicaRouting routing, String user) implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            routing.markWriter(user);
+        }
+    }
+}
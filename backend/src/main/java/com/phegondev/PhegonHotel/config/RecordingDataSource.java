@@ -0,0 +1,96 @@
+package com.phegondev.PhegonHotel.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Feeds SqlFlightRecorder. A connection taken while a request trace is open comes back wrapped, and
+ * so do the statements it creates; each execute call is timed and recorded with its SQL. Outside a
+ * request (scheduled jobs, the outbox dispatcher, startup) the pool's connection is returned as is.
+ */
+public class RecordingDataSource extends DelegatingDataSource {
+
+    public RecordingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return record(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return record(super.getConnection(username, password));
+    }
+
+    private static Connection record(Connection connection) {
+        SqlFlightRecorder.RequestTrace trace = SqlFlightRecorder.current();
+        if (trace == null) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            switch (method.getName()) {
+                case "prepareCall":
+                    return statement(CallableStatement.class, (CallableStatement) result, (String) args[0], trace);
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, (PreparedStatement) result, (String) args[0], trace);
+                case "createStatement":
+                    return statement(Statement.class, (Statement) result, null, trace);
+                default:
+                    return result;
+            }
+        });
+    }
+
+    // preparedSql is null for plain statements, which pass their SQL to execute
+    private static <T extends Statement> T statement(Class<T> type, T statement, String preparedSql,
+                                                     SqlFlightRecorder.RequestTrace trace) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : "(batch)";
+            SqlFlightRecorder.SqlStatementEvent event = new SqlFlightRecorder.SqlStatementEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                event.end();
+                String callSite = trace.record(sql, start, elapsed);
+                if (event.shouldCommit()) {
+                    event.sql = sql;
+                    event.callSite = callSite;
+                    event.request = trace.describe();
+                    event.commit();
+                }
+            }
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,34 @@
+package com.phegondev.PhegonHotel.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lets read-only transactions opened by service methods run on the replica. Repository calls
+ * outside those methods also get read-only transactions (Spring Data's default), but they often
+ * read rows that are about to be updated, so they stay on the primary.
+ */
+@Aspect
+public class ReplicaReadAspect {
+
+    private final ReplicaRouting routing;
+
+    public ReplicaReadAspect(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Around("within(com.phegondev.PhegonHotel.service..*) && @annotation(transactional)")
+    public Object readFromReplica(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+        Boolean previous = routing.requestReplica();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            routing.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.phegondev.PhegonHotel.utils.JWTUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Decides whether a read-only transaction may use the replica. Three things must hold: the call
+ * came through a @Transactional(readOnly = true) service method, the replica's heartbeat is within
+ * app.datasource.replica.max-lag, and the current user has not committed a write within
+ * app.datasource.replica.sticky-window (read-your-writes). The last write is remembered in a
+ * replica_sticky cookie holding its time and an HMAC of user and time under the JWT key, so every
+ * instance honours it and it cannot be forged or moved to another account.
+ */
+public class ReplicaRouting {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouting.class);
+
+    private static final String UPSERT_HEARTBEAT_SQL = "INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?) "
+            + "ON DUPLICATE KEY UPDATE beat_at = VALUES(beat_at)";
+    private static final String SELECT_HEARTBEAT_SQL = "SELECT beat_at FROM replica_heartbeat WHERE id = 1";
+
+    static final String STICKY_COOKIE = "replica_sticky";
+    private static final String STICKY_ATTRIBUTE = ReplicaRouting.class.getName() + ".wrote";
+
+    private static final ThreadLocal<Boolean> REPLICA_REQUESTED = new ThreadLocal<>();
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final Duration stickyWindow;
+    private final JWTUtils jwtUtils;
+
+    private volatile boolean replicaAvailable;
+    private volatile long lagMillis = -1;
+
+    public ReplicaRouting(DataSource primary, DataSource replica, Duration maxLag, Duration stickyWindow,
+                          JWTUtils jwtUtils, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.stickyWindow = stickyWindow;
+        this.jwtUtils = jwtUtils;
+        Gauge.builder("hotel.replica.lag", this, routing -> routing.lagMillis)
+                .description("Replica heartbeat age in milliseconds, -1 when unreadable")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("hotel.replica.available", this, routing -> routing.replicaAvailable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    // Set around @Transactional(readOnly = true) service methods by ReplicaReadAspect; returns the previous value
+    Boolean requestReplica() {
+        Boolean previous = REPLICA_REQUESTED.get();
+        REPLICA_REQUESTED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    void restore(Boolean previous) {
+        if (previous == null) {
+            REPLICA_REQUESTED.remove();
+        } else {
+            REPLICA_REQUESTED.set(previous);
+        }
+    }
+
+    boolean useReplica() {
+        if (!Boolean.TRUE.equals(REPLICA_REQUESTED.get()) || !replicaAvailable) {
+            return false;
+        }
+        String user = currentUser();
+        return user == null || !wroteRecently(user);
+    }
+
+    // The current user committed a write; their reads stay on the primary for the sticky window
+    void markWriter(String user) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return; // not serving a request (outbox dispatcher, schedulers): nobody to read it back
+        }
+        attributes.getRequest().setAttribute(STICKY_ATTRIBUTE, Boolean.TRUE);
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        long writtenAt = System.currentTimeMillis();
+        Cookie cookie = new Cookie(STICKY_COOKIE, writtenAt + "." + jwtUtils.sign(user + "|" + writtenAt));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, stickyWindow.toSeconds()));
+        response.addCookie(cookie);
+    }
+
+    private boolean wroteRecently(String user) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getAttribute(STICKY_ATTRIBUTE) != null) {
+            return true;
+        }
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (STICKY_COOKIE.equals(cookie.getName()) && isRecentWriteBy(user, cookie.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRecentWriteBy(String user, String value) {
+        int dot = value.indexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+        long writtenAt;
+        try {
+            writtenAt = Long.parseLong(value.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        byte[] expected = jwtUtils.sign(user + "|" + writtenAt).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual)
+                && System.currentTimeMillis() - writtenAt < stickyWindow.toMillis();
+    }
+
+    static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /**
+     * Writes the heartbeat on the primary and reads the replicated one back. The measured lag
+     * includes up to one check interval, so max-lag should be larger than the interval.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        boolean available;
+        try {
+            long now = System.currentTimeMillis();
+            primary.update(UPSERT_HEARTBEAT_SQL, now);
+            List<Long> beats = replica.queryForList(SELECT_HEARTBEAT_SQL, Long.class);
+            lagMillis = beats.isEmpty() ? -1 : Math.max(0, now - beats.get(0));
+            available = lagMillis >= 0 && lagMillis <= maxLag.toMillis();
+        } catch (Exception e) {
+            lagMillis = -1;
+            available = false;
+            if (replicaAvailable) {
+                logger.warn("Replica check failed: {}", e.getMessage());
+            }
+        }
+        if (available != replicaAvailable) {
+            logger.info("Replica {} (lag {} ms, max {} ms)", available ? "in use" : "bypassed", lagMillis, maxLag.toMillis());
+        }
+        replicaAvailable = available;
+    }
+}
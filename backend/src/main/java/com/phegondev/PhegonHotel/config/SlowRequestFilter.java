@@ -0,0 +1,47 @@
+package com.phegondev.PhegonHotel.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a SqlFlightRecorder trace around each request, ahead of the security filters so the JWT
+ * principal lookup is counted too. Work a streaming response does after the handler returns runs on
+ * another thread and is not recorded.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SlowRequestFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private SqlFlightRecorder recorder;
+
+    @Value("${diagnostics.flight-recorder.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlFlightRecorder.RequestTrace trace = recorder.begin(request.getMethod(), request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recorder.finish(trace, (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                    response.getStatus());
+        }
+    }
+}
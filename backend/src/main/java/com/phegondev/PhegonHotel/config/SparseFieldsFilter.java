@@ -0,0 +1,58 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Set;
+
+/**
+ * Property filter behind the {@code fields} request parameter. DTOs annotated
+ * {@code @JsonFilter(SparseFieldsFilter.ID)} write only the listed properties; a DTO inside a kept
+ * property (a booking's room) is written whole. Without a field list everything is written, which is
+ * how every ObjectMapper is set up (see JacksonConfig), so the annotation is harmless elsewhere.
+ */
+public class SparseFieldsFilter extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "fields";
+
+    // null writes every property
+    private final Set<String> fields;
+
+    private SparseFieldsFilter(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FilterProvider allFields() {
+        return provider(null);
+    }
+
+    public static FilterProvider provider(Set<String> fields) {
+        return new SimpleFilterProvider().addFilter(ID, new SparseFieldsFilter(fields));
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider, PropertyWriter writer) throws Exception {
+        if (fields == null || fields.contains(writer.getName()) || isNested(generator)) {
+            writer.serializeAsField(pojo, generator, provider);
+        } else if (!generator.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, generator, provider);
+        }
+    }
+
+    // The generator's current context is the object being written; any filtered DTO above it means it is nested
+    private static boolean isNested(JsonGenerator generator) {
+        for (JsonStreamContext context = generator.getOutputContext().getParent(); context != null; context = context.getParent()) {
+            Object value = context.getCurrentValue();
+            if (value != null && value.getClass().isAnnotationPresent(JsonFilter.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
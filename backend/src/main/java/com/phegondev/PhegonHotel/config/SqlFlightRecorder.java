@@ -0,0 +1,290 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.phegondev.PhegonHotel.dto.SlowRequestDTO;
+import com.phegondev.PhegonHotel.dto.SqlStatementDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Always-on flight recorder for JDBC work per HTTP request. SlowRequestFilter opens a trace for each
+ * request and RecordingDataSource times every statement run on a connection taken during it, along
+ * with the application frames that ran it. Requests slower than the threshold are kept, statements
+ * grouped by SQL and call site, in a ring of the last {@code capacity} slow requests
+ * (GET /diagnostics/slow-requests), and are emitted as JFR events. A group with many executions points
+ * at an N+1 load, a single slow one at a missing index. Statement time covers the execute call only,
+ * not iterating the result set. Fast requests cost a map of their statements and nothing is kept.
+ */
+@Component
+public class SqlFlightRecorder {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final String APP_PACKAGE = "com.phegondev.PhegonHotel.";
+    private static final String CONFIG_PACKAGE = APP_PACKAGE + "config.";
+    private static final String CONTROLLER_PACKAGE = APP_PACKAGE + "controller.";
+    private static final int MAX_CALL_SITE_FRAMES = 3;
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${diagnostics.flight-recorder.threshold:500ms}")
+    private Duration threshold;
+    @Value("${diagnostics.flight-recorder.capacity:100}")
+    private int capacity;
+    @Value("${diagnostics.flight-recorder.max-statement-groups:100}")
+    private int maxStatementGroups;
+    @Value("${diagnostics.flight-recorder.call-sites:true}")
+    private boolean callSites;
+
+    private SlowRequestDTO[] ring;
+    private long recorded;
+    private Counter slowRequests;
+
+    @PostConstruct
+    public void start() {
+        ring = new SlowRequestDTO[Math.max(1, capacity)];
+        slowRequests = Counter.builder("hotel.requests.slow")
+                .description("Requests slower than diagnostics.flight-recorder.threshold")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts recording the statements of the current thread's request; must be paired with
+     * {@link #finish} on the same thread.
+     */
+    RequestTrace begin(String method, String uri) {
+        RequestTrace trace = new RequestTrace(method, uri, callSites, maxStatementGroups);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    void finish(RequestTrace trace, String route, int status) {
+        CURRENT.remove();
+        long elapsed = System.nanoTime() - trace.startNanos;
+        trace.close();
+        if (elapsed < threshold.toNanos()) {
+            return;
+        }
+        SlowRequestDTO slowRequest = trace.toDTO(route, status, elapsed);
+        synchronized (this) {
+            ring[(int) (recorded++ % ring.length)] = slowRequest;
+        }
+        slowRequests.increment();
+        trace.event.end();
+        if (trace.event.shouldCommit()) {
+            trace.event.method = trace.method;
+            trace.event.uri = trace.uri;
+            trace.event.route = route;
+            trace.event.status = status;
+            trace.event.statementCount = slowRequest.getStatementCount();
+            trace.event.statementTime = trace.statementNanos;
+            trace.event.statements = slowRequest.getStatements().stream()
+                    .map(statement -> statement.getExecutions() + "x " + statement.getSql())
+                    .collect(Collectors.joining("\n"));
+            trace.event.commit();
+        }
+    }
+
+    // Newest first
+    public synchronized List<SlowRequestDTO> slowRequests(int limit) {
+        List<SlowRequestDTO> slowRequests = new ArrayList<>();
+        for (long i = recorded - 1; i >= Math.max(0, recorded - ring.length) && slowRequests.size() < limit; i--) {
+            slowRequests.add(ring[(int) (i % ring.length)]);
+        }
+        return slowRequests;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        recorded = 0;
+    }
+
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    // Innermost application frames below the data source, up to the controller
+    private static String callSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> isApplicationFrame(frame.getClassName()))
+                .takeWhile(frame -> !frame.getClassName().startsWith(CONTROLLER_PACKAGE))
+                .limit(MAX_CALL_SITE_FRAMES)
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" < ")));
+    }
+
+    private static boolean isApplicationFrame(String className) {
+        // Spring's CGLIB proxies of services share the package but add nothing to the call site
+        return className.startsWith(APP_PACKAGE) && !className.startsWith(CONFIG_PACKAGE) && !className.contains("$$");
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Statements of one request. Normally touched only by the request thread, but a connection could be
+     * handed to another thread, so recording is synchronized and ignored once the request has finished.
+     */
+    static final class RequestTrace {
+        private final String method;
+        private final String uri;
+        private final boolean callSites;
+        private final int maxGroups;
+        private final long startNanos = System.nanoTime();
+        private final SlowRequestEvent event = new SlowRequestEvent();
+        private final Map<String, StatementGroup> groups = new LinkedHashMap<>();
+        private int statementCount;
+        private long statementNanos;
+        private int unlistedExecutions;
+        private boolean closed;
+
+        private RequestTrace(String method, String uri, boolean callSites, int maxGroups) {
+            this.method = method;
+            this.uri = uri;
+            this.callSites = callSites;
+            this.maxGroups = maxGroups;
+            event.begin();
+        }
+
+        /**
+         * Records one execution that started at {@code start} (System.nanoTime) and took {@code elapsed}
+         * nanoseconds, and returns the call site it was attributed to.
+         */
+        String record(String sql, long start, long elapsed) {
+            String callSite = callSites ? callSite() : null;
+            synchronized (this) {
+                if (closed) {
+                    return callSite;
+                }
+                statementCount++;
+                statementNanos += elapsed;
+                String key = callSite == null ? sql : sql + '\n' + callSite;
+                StatementGroup group = groups.get(key);
+                if (group == null) {
+                    if (groups.size() >= maxGroups) {
+                        unlistedExecutions++;
+                        return callSite;
+                    }
+                    group = new StatementGroup(sql, callSite, start - startNanos);
+                    groups.put(key, group);
+                }
+                group.executions++;
+                group.totalNanos += elapsed;
+                group.maxNanos = Math.max(group.maxNanos, elapsed);
+            }
+            return callSite;
+        }
+
+        String describe() {
+            return method + " " + uri;
+        }
+
+        private synchronized void close() {
+            closed = true;
+        }
+
+        private synchronized SlowRequestDTO toDTO(String route, int status, long elapsed) {
+            SlowRequestDTO slowRequest = new SlowRequestDTO();
+            slowRequest.setMethod(method);
+            slowRequest.setUri(uri);
+            slowRequest.setRoute(route);
+            slowRequest.setStatus(status);
+            slowRequest.setStartedAt(LocalDateTime.now().minusNanos(elapsed));
+            slowRequest.setDurationMillis(millis(elapsed));
+            slowRequest.setStatementCount(statementCount);
+            slowRequest.setStatementMillis(millis(statementNanos));
+            slowRequest.setUnlistedExecutions(unlistedExecutions);
+            slowRequest.setStatements(groups.values().stream().map(StatementGroup::toDTO).toList());
+            return slowRequest;
+        }
+    }
+
+    private static final class StatementGroup {
+        private final String sql;
+        private final String callSite;
+        private final long firstAtNanos;
+        private int executions;
+        private long totalNanos;
+        private long maxNanos;
+
+        private StatementGroup(String sql, String callSite, long firstAtNanos) {
+            this.sql = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+            this.callSite = callSite;
+            this.firstAtNanos = firstAtNanos;
+        }
+
+        private SqlStatementDTO toDTO() {
+            SqlStatementDTO statement = new SqlStatementDTO();
+            statement.setSql(sql);
+            statement.setCallSite(callSite);
+            statement.setExecutions(executions);
+            statement.setTotalMillis(millis(totalNanos));
+            statement.setMaxMillis(millis(maxNanos));
+            statement.setFirstAtMillis(millis(firstAtNanos));
+            return statement;
+        }
+    }
+
+    // Committed for every request the recorder keeps, while a JFR recording is running
+    @Name("com.phegondev.hotel.SlowRequest")
+    @Label("Slow Request")
+    @Category({"Phegon Hotel", "Requests"})
+    @Description("HTTP request slower than diagnostics.flight-recorder.threshold, with its SQL statements")
+    static final class SlowRequestEvent extends Event {
+        @Label("Method")
+        String method;
+        @Label("URI")
+        String uri;
+        @Label("Route")
+        String route;
+        @Label("Status")
+        int status;
+        @Label("Statement Count")
+        int statementCount;
+        @Label("Statement Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long statementTime;
+        @Label("Statements")
+        String statements;
+    }
+
+    // Statements run inside requests; lower the threshold in the recording settings to see all of them
+    @Name("com.phegondev.hotel.SqlStatement")
+    @Label("SQL Statement")
+    @Category({"Phegon Hotel", "Database"})
+    @Threshold("5 ms")
+    static final class SqlStatementEvent extends Event {
+        @Label("SQL")
+        String sql;
+        @Label("Call Site")
+        String callSite;
+        @Label("Request")
+        String request;
+    }
+}
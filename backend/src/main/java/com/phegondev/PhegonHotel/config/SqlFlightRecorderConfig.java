@@ -0,0 +1,31 @@
+package com.phegondev.PhegonHotel.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource (the "dataSource" bean: the Hikari pool, or the replica router when
+ * read/write splitting is on) in a RecordingDataSource for SqlFlightRecorder. The pools behind it are
+ * left alone, so every statement is timed once.
+ */
+@Configuration
+public class SqlFlightRecorderConfig {
+
+    // Static so the post-processor is registered before the DataSource bean is created
+    @Bean
+    public static BeanPostProcessor recordingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (beanName.equals("dataSource") && bean instanceof DataSource dataSource
+                        && !(bean instanceof RecordingDataSource)) {
+                    return new RecordingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.phegondev.PhegonHotel.controller;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.service.interfac.IAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private IAnalyticsService analyticsService;
+
+    // Nights in [fromDate, toDate), like check in / check out; groupBy is day (default), month or total
+    @GetMapping("/occupancy")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> getOccupancy(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String roomType,
+            @RequestParam(required = false) String groupBy
+    ) {
+        if (fromDate == null || toDate == null) {
+            Response response = new Response();
+            response.setStatusCode(400);
+            response.setMessage("Please provide values for all fields(fromDate, toDate)");
+            return ResponseEntity.status(response.getStatusCode()).body(response);
+        }
+        Response response = analyticsService.getOccupancy(fromDate, toDate, roomType, groupBy);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    // Without dates every night that has bookings is rebuilt
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate
+    ) {
+        Response response = analyticsService.rebuildRollups(fromDate, toDate);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+}
@@ -6,6 +6,7 @@ import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.User;
 import com.phegondev.PhegonHotel.service.interfac.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -22,12 +23,21 @@ public class AuthController {
     @PostMapping("/register")
     public ResponseEntity<Response> register(@RequestBody User user) {
         Response response = userService.register(user);
-        return ResponseEntity.status(response.getStatusCode()).body(response);
+        return toResponseEntity(response);
     }
 
     @PostMapping("/login")
     public ResponseEntity<Response> login(@RequestBody LoginRequest loginRequest) {
         Response response = userService.login(loginRequest);
-        return ResponseEntity.status(response.getStatusCode()).body(response);
+        return toResponseEntity(response);
+    }
+
+    // Password hashing is admission controlled; a 503 tells the client when to try again
+    private ResponseEntity<Response> toResponseEntity(Response response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
+        if (response.getRetryAfterSeconds() != null) {
+            builder.header(HttpHeaders.RETRY_AFTER, String.valueOf(response.getRetryAfterSeconds()));
+        }
+        return builder.body(response);
     }
 }
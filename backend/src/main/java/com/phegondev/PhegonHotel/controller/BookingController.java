@@ -1,13 +1,22 @@
 package com.phegondev.PhegonHotel.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.dto.BulkBookingRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.Booking;
 import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import com.phegondev.PhegonHotel.utils.NdjsonWriter;
+import com.phegondev.PhegonHotel.utils.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/bookings")
@@ -16,6 +25,8 @@ public class BookingController {
 
     @Autowired
     private IBookingService bookingService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @PostMapping("/book-room/{roomId}/{userId}")
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
@@ -29,13 +40,49 @@ public class BookingController {
 
     }
 
+    // Group/event bookings: many rooms and stays in one request (mode ALL_OR_NOTHING or BEST_EFFORT)
+    @PostMapping("/book-rooms/{userId}")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+    public ResponseEntity<Response> saveBulkBookings(@PathVariable Long userId,
+                                                     @RequestBody BulkBookingRequest bulkBookingRequest) {
+        Response response = bookingService.saveBookings(userId, bulkBookingRequest);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    // Nearest free stays of the same length for the room or its room type; also returned with a rejected booking
+    @GetMapping("/suggest-dates/{roomId}")
+    public ResponseEntity<Response> suggestDates(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOutDate
+    ) {
+        if (checkInDate == null || checkOutDate == null) {
+            Response response = new Response();
+            response.setStatusCode(400);
+            response.setMessage("Please provide values for all fields(checkInDate, checkOutDate)");
+            return ResponseEntity.status(response.getStatusCode()).body(response);
+        }
+        Response response = bookingService.suggestDates(roomId, checkInDate, checkOutDate);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<Response> getAllBookings() {
-        Response response = bookingService.getAllBookings();
+    public ResponseEntity<Response> getAllBookings(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size) {
+        Response response = cursor == null && size == null
+                ? bookingService.getAllBookings()
+                : bookingService.getAllBookings(cursor, Utils.clampPageSize(size));
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllBookings() {
+        StreamingResponseBody body = out -> bookingService.streamAllBookings(new NdjsonWriter<>(out, objectMapper));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/get-by-confirmation-code/{confirmationCode}")
     public ResponseEntity<Response> getBookingByConfirmationCode(@PathVariable String confirmationCode) {
         Response response = bookingService.findBookingByConfirmationCode(confirmationCode);
@@ -0,0 +1,37 @@
+package com.phegondev.PhegonHotel.controller;
+
+import com.phegondev.PhegonHotel.config.SqlFlightRecorder;
+import com.phegondev.PhegonHotel.dto.Response;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/diagnostics")
+public class DiagnosticsController {
+
+    @Autowired
+    private SqlFlightRecorder sqlFlightRecorder;
+
+    // Newest first: requests over diagnostics.flight-recorder.threshold with their SQL statements and call sites
+    @GetMapping("/slow-requests")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> getSlowRequests(@RequestParam(required = false) Integer limit) {
+        Response response = new Response();
+        response.setStatusCode(200);
+        response.setMessage("successful");
+        response.setSlowRequests(sqlFlightRecorder.slowRequests(limit == null || limit < 1 ? Integer.MAX_VALUE : limit));
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    @DeleteMapping("/slow-requests")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> clearSlowRequests() {
+        sqlFlightRecorder.clear();
+        Response response = new Response();
+        response.setStatusCode(200);
+        response.setMessage("successful");
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+}
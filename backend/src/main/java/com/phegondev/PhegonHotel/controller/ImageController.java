@@ -0,0 +1,102 @@
+package com.phegondev.PhegonHotel.controller;
+
+import com.phegondev.PhegonHotel.service.ImageDerivativeService;
+import com.phegondev.PhegonHotel.utils.ImageVariant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Serves uploaded room images. Files are stored under their content hash ({@code ab/cd/<sha256>.<ext>})
+ * or, for older uploads, a unique name; either way a name is never rewritten,
+ * so it is a strong ETag and responses can be cached as immutable.
+ * Conditional requests (304) and byte ranges (206) are handled by Spring MVC for Resource bodies.
+ * {@code ?size=thumbnail|card|full} selects a resized derivative; while it is still being
+ * generated the original is returned with no-cache so the client asks again later. Derivative files are
+ * only reachable through {@code ?size} on their original, never by their own name.
+ */
+@RestController
+@RequestMapping("/images")
+public class ImageController {
+    private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
+
+    @Value("${file.upload.dir}")
+    private String uploadDir;
+
+    @Value("${file.images.immutable-caching:true}")
+    private boolean immutableCaching;
+
+    @Value("${file.images.max-age:365d}")
+    private Duration maxAge;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @GetMapping("/{*filename}")
+    public ResponseEntity<Resource> getImage(@PathVariable String filename,
+                                             @RequestParam(value = "size", required = false) String size) throws IOException {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        String relativePath = filename.startsWith("/") ? filename.substring(1) : filename;
+        Path imagePath = root.resolve(relativePath).normalize();
+
+        // Hidden entries (.incoming uploads, derivative temp files) are never served, and neither are derivatives
+        // by name, which would otherwise let ?size chain derivatives of derivatives
+        if (!imagePath.startsWith(root) || isHidden(root.relativize(imagePath))
+                || imageDerivativeService.isDerivative(imagePath) || !Files.isRegularFile(imagePath)) {
+            logger.debug("Image not found: {}", imagePath);
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean immutable = immutableCaching;
+        ImageVariant variant = ImageVariant.fromParam(size);
+        if (variant != null) {
+            Path derivative = imageDerivativeService.derivativePath(imagePath, variant);
+            if (Files.isRegularFile(derivative)) {
+                imagePath = derivative;
+            } else {
+                // Uploaded before derivatives existed, or still queued: fall back without pinning it in caches
+                imageDerivativeService.generateAsync(imagePath);
+                immutable = false;
+            }
+        }
+
+        CacheControl cacheControl = immutable
+                ? CacheControl.maxAge(maxAge).cachePublic().immutable()
+                : CacheControl.noCache();
+
+        String servedName = imagePath.getFileName().toString();
+        return ResponseEntity.ok()
+                .eTag(servedName)
+                .lastModified(Files.getLastModifiedTime(imagePath).toMillis())
+                .cacheControl(cacheControl)
+                .contentType(MediaTypeFactory.getMediaType(servedName).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .body(new FileSystemResource(imagePath));
+    }
+
+    private static boolean isHidden(Path relativePath) {
+        for (Path segment : relativePath) {
+            if (segment.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -28,6 +29,8 @@ public class ImageDebugController {
     
     @Value("${file.upload.dir}")
     private String uploadDir;
+
+    private static final int MAX_LISTED_FILES = 100;
     
     @GetMapping("/image-info/{filename}")
     public ResponseEntity<String> getImageInfo(@PathVariable String filename) {
@@ -49,13 +52,22 @@ public class ImageDebugController {
             }
         }
         
-        // List all files in the directory
-        info.append("\nAll files in directory:\n");
-        File dir = new File(uploadDir);
-        if (dir.exists() && dir.isDirectory()) {
-            for (File file : dir.listFiles()) {
-                info.append(" - ").append(file.getName())
-                    .append(" (").append(file.length()).append(" bytes)\n");
+        // List files in the directory, bounded so a large store can't blow up this endpoint
+        info.append("\nFiles in directory (first ").append(MAX_LISTED_FILES).append("):\n");
+        Path dir = Paths.get(uploadDir);
+        if (Files.isDirectory(dir)) {
+            int listed = 0;
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    if (listed++ == MAX_LISTED_FILES) {
+                        info.append(" - ...\n");
+                        break;
+                    }
+                    info.append(" - ").append(entry.getFileName())
+                        .append(Files.isDirectory(entry) ? " (directory)\n" : " (" + entry.toFile().length() + " bytes)\n");
+                }
+            } catch (IOException e) {
+                info.append("Error listing directory: ").append(e.getMessage()).append("\n");
             }
         } else {
             info.append("Directory does not exist or is not a directory\n");
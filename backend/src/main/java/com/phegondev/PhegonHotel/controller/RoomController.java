@@ -1,28 +1,66 @@
 package com.phegondev.PhegonHotel.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.dto.RoomSearchCriteria;
+import com.phegondev.PhegonHotel.service.CatalogSnapshots;
+import com.phegondev.PhegonHotel.service.RoomImportService;
 import com.phegondev.PhegonHotel.service.interfac.IBookingService;
 import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import com.phegondev.PhegonHotel.utils.CsvWriter;
+import com.phegondev.PhegonHotel.utils.LimitedInputStream;
+import com.phegondev.PhegonHotel.utils.NdjsonWriter;
+import com.phegondev.PhegonHotel.utils.Utils;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequestMapping("/rooms")
 public class RoomController {
 
+    private static final String IMPORT_CSV = "text/csv";
+    private static final String IMPORT_ZIP = "application/zip";
+
     @Autowired
     private IRoomService roomService;
     @Autowired
     private IBookingService iBookingService;
+    @Autowired
+    private RoomImportService roomImportService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
+
+    @Value("${file.upload.max-import-size:520MB}")
+    private DataSize maxImportSize;
 
 
     @PostMapping("/add")
@@ -31,7 +69,8 @@ public class RoomController {
             @RequestParam(value = "photo", required = false) MultipartFile photo,
             @RequestParam(value = "roomType", required = false) String roomType,
             @RequestParam(value = "roomPrice", required = false) BigDecimal roomPrice,
-            @RequestParam(value = "roomDescription", required = false) String roomDescription
+            @RequestParam(value = "roomDescription", required = false) String roomDescription,
+            @RequestParam(value = "capacity", required = false) Integer capacity
     ) {
 
         if (photo == null || photo.isEmpty() || roomType == null || roomType.isBlank() || roomPrice == null || roomType.isBlank()) {
@@ -40,19 +79,117 @@ public class RoomController {
             response.setMessage("Please provide values for all fields(photo, roomType,roomPrice)");
             return ResponseEntity.status(response.getStatusCode()).body(response);
         }
-        Response response = roomService.addNewRoom(photo, roomType, roomPrice, roomDescription);
+        Response response = roomService.addNewRoom(photo, roomType, roomPrice, roomDescription, capacity);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Response> getAllRooms() {
-        Response response = roomService.getAllRooms();
+    public ResponseEntity<?> getAllRooms(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size,
+                                         HttpServletRequest request) {
+        // Without paging parameters keep returning the full list for existing clients
+        if (cursor == null && size == null) {
+            ResponseEntity<byte[]> snapshot = snapshot(CatalogSnapshots.View.ALL_ROOMS, request);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        Response response = cursor == null && size == null
+                ? roomService.getAllRooms()
+                : roomService.getAllRooms(cursor, Utils.clampPageSize(size));
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllRooms() {
+        StreamingResponseBody body = out -> roomService.streamAllRooms(new NdjsonWriter<>(out, objectMapper));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Body is the manifest itself ({@code text/csv} or {@code application/x-ndjson}), or a zip holding
+     * manifest.csv/.ndjson/.jsonl and the photos it names. It is read as a raw stream capped at
+     * file.upload.max-import-size, so the multipart limits of every other endpoint stay at photo size.
+     */
+    @PostMapping(value = "/import", consumes = {IMPORT_CSV, MediaType.APPLICATION_NDJSON_VALUE, IMPORT_ZIP})
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> importRooms(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxImportSize.toBytes()) {
+            return importTooLarge();
+        }
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        boolean archive = contentType.isCompatibleWith(MediaType.parseMediaType(IMPORT_ZIP));
+        String manifestName = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON) ? "manifest.ndjson" : "manifest.csv";
+
+        // A zip needs random access, and the body is streamed after the request is done, so the upload is spooled to disk
+        Path upload = Files.createTempFile("room-import-", archive ? ".zip" : ".manifest");
+        try (InputStream in = new LimitedInputStream(request.getInputStream(), maxImportSize.toBytes())) {
+            Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            if (e instanceof LimitedInputStream.SizeLimitExceededException) {
+                return importTooLarge();
+            }
+            throw e;
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                if (archive) {
+                    roomImportService.importArchive(upload, new NdjsonWriter<>(out, objectMapper, true));
+                } else {
+                    roomImportService.importRooms(upload, manifestName, new NdjsonWriter<>(out, objectMapper, true));
+                }
+            } finally {
+                Files.deleteIfExists(upload);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private ResponseEntity<Response> importTooLarge() {
+        Response response = new Response();
+        response.setStatusCode(413);
+        response.setMessage("Import is larger than " + maxImportSize.toMegabytes() + "MB");
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> exportRooms(@RequestParam(defaultValue = "csv") String format) {
+        if ("ndjson".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> roomService.streamAllRooms(new NdjsonWriter<>(out, objectMapper));
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rooms.ndjson\"")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(body);
+        }
+        if (!"csv".equalsIgnoreCase(format)) {
+            Response response = new Response();
+            response.setStatusCode(400);
+            response.setMessage("format must be csv or ndjson");
+            return ResponseEntity.status(response.getStatusCode()).body(response);
+        }
+
+        // Same columns the import reads, so an export can be edited and imported again
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            CsvWriter csv = new CsvWriter(writer);
+            csv.write(List.of("id", "roomType", "roomPrice", "roomDescription", "capacity", "roomPhotoUrl"));
+            roomService.streamAllRooms(room -> csv.write(Arrays.asList(room.getId(), room.getRoomType(),
+                    room.getRoomPrice(), room.getRoomDescription(), room.getCapacity(), room.getRoomPhotoUrl())));
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rooms.csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
     @GetMapping("/types")
-    public List<String> getRoomTypes() {
-        return roomService.getAllRoomTypes();
+    public ResponseEntity<?> getRoomTypes(HttpServletRequest request) {
+        ResponseEntity<byte[]> snapshot = snapshot(CatalogSnapshots.View.ROOM_TYPES, request);
+        return snapshot != null ? snapshot : ResponseEntity.ok(roomService.getAllRoomTypes());
     }
 
     @GetMapping("/room-by-id/{roomId}")
@@ -61,8 +198,19 @@ public class RoomController {
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    // e.g. /rooms/search?roomType=Suite&roomType=Deluxe&minPrice=100&maxPrice=300&guests=3&sort=price_asc&size=20
+    @GetMapping("/search")
+    public ResponseEntity<Response> searchRooms(@ModelAttribute RoomSearchCriteria criteria) {
+        Response response = roomService.searchRooms(criteria);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
     @GetMapping("/all-available-rooms")
-    public ResponseEntity<Response> getAvailableRooms() {
+    public ResponseEntity<?> getAvailableRooms(HttpServletRequest request) {
+        ResponseEntity<byte[]> snapshot = snapshot(CatalogSnapshots.View.AVAILABLE_ROOMS, request);
+        if (snapshot != null) {
+            return snapshot;
+        }
         Response response = roomService.getAllAvailableRooms();
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
@@ -89,10 +237,11 @@ public class RoomController {
                                                @RequestParam(value = "photo", required = false) MultipartFile photo,
                                                @RequestParam(value = "roomType", required = false) String roomType,
                                                @RequestParam(value = "roomPrice", required = false) BigDecimal roomPrice,
-                                               @RequestParam(value = "roomDescription", required = false) String roomDescription
+                                               @RequestParam(value = "roomDescription", required = false) String roomDescription,
+                                               @RequestParam(value = "capacity", required = false) Integer capacity
 
     ) {
-        Response response = roomService.updateRoom(roomId, roomDescription, roomType, roomPrice, photo);
+        Response response = roomService.updateRoom(roomId, roomDescription, roomType, roomPrice, capacity, photo);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
@@ -104,5 +253,38 @@ public class RoomController {
 
     }
 
+    // Pre-serialized JSON for plain catalog requests; Smile/CBOR and ?fields go through the service.
+    // An If-None-Match carrying the ETag is answered 304 by Spring MVC.
+    private ResponseEntity<byte[]> snapshot(CatalogSnapshots.View view, HttpServletRequest request) {
+        if (request.getParameter("fields") != null || !acceptsJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            return null;
+        }
+        CatalogSnapshots.Snapshot snapshot = catalogSnapshots.get(view);
+        if (snapshot == null) {
+            return null;
+        }
+        CatalogSnapshots.Encoding encoding = snapshot.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.eTag(encoding))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding.contentEncoding() != null) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, encoding.contentEncoding());
+        }
+        return builder.body(snapshot.body(encoding));
+    }
 
+    private static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> types = MediaType.parseMediaTypes(accept);
+            return types.stream().noneMatch(type -> type.getSubtype().contains("smile") || type.getSubtype().contains("cbor"))
+                    && types.stream().anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
 }
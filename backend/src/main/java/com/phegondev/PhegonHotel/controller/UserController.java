@@ -1,14 +1,19 @@
 package com.phegondev.PhegonHotel.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.service.interfac.IUserService;
+import com.phegondev.PhegonHotel.utils.NdjsonWriter;
+import com.phegondev.PhegonHotel.utils.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/users")
@@ -17,15 +22,27 @@ public class UserController {
 
     @Autowired
     private IUserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
 
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<Response> getAllUsers() {
-        Response response = userService.getAllUsers();
+    public ResponseEntity<Response> getAllUsers(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size) {
+        Response response = cursor == null && size == null
+                ? userService.getAllUsers()
+                : userService.getAllUsers(cursor, Utils.clampPageSize(size));
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = out -> userService.streamAllUsers(new NdjsonWriter<>(out, objectMapper));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/get-by-id/{userId}")
     public ResponseEntity<Response> getUserById(@PathVariable("userId") String userId) {
         Response response = userService.getUserById(userId);
@@ -1,13 +1,16 @@
 package com.phegondev.PhegonHotel.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.phegondev.PhegonHotel.config.SparseFieldsFilter;
 import lombok.Data;
 
 import java.time.LocalDate;
 
 @Data
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonFilter(SparseFieldsFilter.ID)
 public class BookingDTO {
 
     private Long id;
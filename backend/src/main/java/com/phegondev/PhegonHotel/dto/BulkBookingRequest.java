@@ -0,0 +1,29 @@
+package com.phegondev.PhegonHotel.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Body of POST /bookings/book-rooms/{userId}: one line per room and stay
+@Data
+public class BulkBookingRequest {
+
+    public enum Mode {
+        ALL_OR_NOTHING, // any failing line rejects the whole request
+        BEST_EFFORT     // valid lines are booked, failing lines are reported
+    }
+
+    private Mode mode = Mode.ALL_OR_NOTHING;
+    private List<Line> lines = new ArrayList<>();
+
+    @Data
+    public static class Line {
+        private Long roomId;
+        private LocalDate checkInDate;
+        private LocalDate checkOutDate;
+        private int numOfAdults;
+        private int numOfChildren;
+    }
+}
@@ -0,0 +1,16 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+// Outcome of one bulk booking line: a confirmation code, or the reason it was not booked
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkBookingResult {
+
+    private int line;
+    private Long roomId;
+    private Long bookingId;
+    private String bookingConfirmationCode;
+    private String error;
+}
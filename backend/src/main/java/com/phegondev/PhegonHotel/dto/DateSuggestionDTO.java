@@ -0,0 +1,19 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// A free stay of the requested length offered when the asked room and dates are taken
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DateSuggestionDTO {
+
+    private Long roomId;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    // Days from the asked check in date: negative is earlier, 0 is the asked dates in another room of the same type
+    private int shiftDays;
+    private boolean sameRoom;
+}
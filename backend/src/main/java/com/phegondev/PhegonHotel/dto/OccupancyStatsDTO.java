@@ -0,0 +1,22 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// Occupancy and revenue of one room type over one period (a day, a month, or the whole requested range)
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OccupancyStatsDTO {
+
+    private String period;
+    private String roomType;
+    private long roomNights;
+    private long guests;
+    private BigDecimal revenue;
+    // Rooms of this type today times the nights of the period
+    private long availableRoomNights;
+    private Double occupancyRate;
+    private BigDecimal averageDailyRate;
+}
@@ -24,6 +24,17 @@ public class Response {
     private List<UserDTO> userList;
     private List<RoomDTO> roomList;
     private List<BookingDTO> bookingList;
+    private List<BulkBookingResult> bulkBookingResults;
+    private List<OccupancyStatsDTO> occupancyStats;
+    // Nearest free alternatives when the asked room is not available for the asked dates
+    private List<DateSuggestionDTO> dateSuggestions;
+    private List<SlowRequestDTO> slowRequests;
+
+    // Opaque keyset token for the next page; absent on the last page
+    private String nextCursor;
+
+    // Set with statusCode 503; also sent as the Retry-After header
+    private Long retryAfterSeconds;
 
 
 }
@@ -1,20 +1,26 @@
 package com.phegondev.PhegonHotel.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.phegondev.PhegonHotel.config.SparseFieldsFilter;
 import lombok.Data;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonFilter(SparseFieldsFilter.ID)
 public class RoomDTO {
 
     private Long id;
     private String roomType;
     private BigDecimal roomPrice;
     private String roomPhotoUrl;
+    private Map<String, String> roomPhotoUrls;
     private String roomDescription;
+    private Integer capacity;
     private List<BookingDTO> bookings;
 }
@@ -0,0 +1,34 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+// One NDJSON line of the /rooms/import response: a row error, a progress update or the final summary
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoomImportEvent {
+
+    private String type;
+    private Long row;
+    private String message;
+    private Long processed;
+    private Long imported;
+    private Long failed;
+
+    public static RoomImportEvent error(long row, String message) {
+        RoomImportEvent event = new RoomImportEvent();
+        event.setType("error");
+        event.setRow(row);
+        event.setMessage(message);
+        return event;
+    }
+
+    public static RoomImportEvent progress(String type, long processed, long imported, long failed) {
+        RoomImportEvent event = new RoomImportEvent();
+        event.setType(type);
+        event.setProcessed(processed);
+        event.setImported(imported);
+        event.setFailed(failed);
+        return event;
+    }
+}
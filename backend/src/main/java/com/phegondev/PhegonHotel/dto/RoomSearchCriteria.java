@@ -0,0 +1,28 @@
+package com.phegondev.PhegonHotel.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Query parameters of GET /rooms/search; every filter is optional
+@Data
+public class RoomSearchCriteria {
+
+    // Exact room types; repeat the parameter (roomType=A&roomType=B) for several
+    private List<String> roomType;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    // Total guests; rooms without a capacity are not filtered out
+    private Integer guests;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkInDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate checkOutDate;
+    // price_asc (default) or price_desc
+    private String sort;
+    private String cursor;
+    private Integer size;
+}
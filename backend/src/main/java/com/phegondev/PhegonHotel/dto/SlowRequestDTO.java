@@ -0,0 +1,27 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A request that took longer than diagnostics.flight-recorder.threshold, as kept by SqlFlightRecorder
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SlowRequestDTO {
+
+    private String method;
+    private String uri;
+    // Mapped pattern such as /users/get-user-bookings/{userId}; absent when no handler matched
+    private String route;
+    private int status;
+    private LocalDateTime startedAt;
+    private double durationMillis;
+    private int statementCount;
+    private double statementMillis;
+    // In order of first execution
+    private List<SqlStatementDTO> statements;
+    // Executions not listed because the request ran more distinct statements than max-statement-groups
+    private int unlistedExecutions;
+}
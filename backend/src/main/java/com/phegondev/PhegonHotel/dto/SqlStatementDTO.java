@@ -0,0 +1,20 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+// One SQL statement of a slow request, with every execution of it from the same call site folded together
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SqlStatementDTO {
+
+    private String sql;
+    // Application frames that ran it, innermost first ("Utils.mapX:12 < RoomService.getRoomById:80")
+    private String callSite;
+    // More than one execution of the same statement from the same place usually means an N+1 load
+    private int executions;
+    private double totalMillis;
+    private double maxMillis;
+    // When the first execution started, counted from the start of the request
+    private double firstAtMillis;
+}
@@ -1,6 +1,8 @@
 package com.phegondev.PhegonHotel.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.phegondev.PhegonHotel.config.SparseFieldsFilter;
 import lombok.Data;
 
 import java.util.ArrayList;
@@ -8,6 +10,7 @@ import java.util.List;
 
 @Data
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonFilter(SparseFieldsFilter.ID)
 public class UserDTO {
 
     private Long id;
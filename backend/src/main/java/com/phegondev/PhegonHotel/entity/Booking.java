@@ -1,6 +1,7 @@
 package com.phegondev.PhegonHotel.entity;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.Min;
@@ -8,10 +9,14 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_room_dates", columnList = "room_id, check_in_date, check_out_date")
+})
 public class Booking {
 
     @Id
@@ -34,7 +39,7 @@ public class Booking {
 
     private String bookingConfirmationCode;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -42,6 +47,10 @@ public class Booking {
     @JoinColumn(name = "room_id")
     private Room room;
 
+    @JsonIgnore
+    @OneToMany(mappedBy = "booking", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<RoomNight> roomNights = new ArrayList<>();
+
     public void calculateTotalNumberOfGuest() {
         this.totalNumOfGuest = this.numOfAdults + this.numOfChildren;
     }
@@ -56,6 +65,18 @@ public class Booking {
         calculateTotalNumberOfGuest();
     }
 
+    // Creates one RoomNight per night in [checkInDate, checkOutDate); call after room and dates are set
+    public void reserveRoomNights() {
+        roomNights.clear();
+        for (LocalDate night = checkInDate; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+            RoomNight roomNight = new RoomNight();
+            roomNight.setRoomId(room.getId());
+            roomNight.setNight(night);
+            roomNight.setBooking(this);
+            roomNights.add(roomNight);
+        }
+    }
+
     @Override
     public String toString() {
         return "Booking{" +
@@ -0,0 +1,31 @@
+package com.phegondev.PhegonHotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// ยอดรวมรายวันต่อประเภทห้อง: one row per (night, roomType) with the room-nights sold that night,
+// the guests staying and the revenue. Maintained by OccupancyRollups; never edited by hand.
+@Data
+@Entity
+@Table(name = "daily_room_type_stats")
+@IdClass(DailyRoomTypeStatsId.class)
+public class DailyRoomTypeStats {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Id
+    @Column(name = "room_type")
+    private String roomType;
+
+    private long roomNights;
+
+    private long guests;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,17 @@
+package com.phegondev.PhegonHotel.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRoomTypeStatsId implements Serializable {
+
+    private LocalDate statDate;
+    private String roomType;
+}
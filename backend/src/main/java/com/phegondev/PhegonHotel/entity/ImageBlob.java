@@ -0,0 +1,25 @@
+package com.phegondev.PhegonHotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// คลาสที่ใช้เก็บข้อมูลไฟล์รูปภาพ หนึ่งแถวต่อหนึ่งไฟล์ โดยตั้งชื่อไฟล์ตามค่า SHA-256 ของเนื้อหา
+// ห้องที่อัปโหลดรูปเดียวกันจะใช้ไฟล์ร่วมกัน และ refCount นับจำนวนห้องที่อ้างถึงไฟล์นี้
+@Data
+@Entity
+@Table(name = "image_blobs", indexes = {
+        @Index(name = "idx_image_blobs_sha256", columnList = "sha256")
+})
+public class ImageBlob {
+
+    @Id
+    @Column(length = 100)
+    private String path; // พาธของไฟล์เทียบกับ file.upload.dir เช่น ab/cd/<sha256>.jpg
+
+    @Column(nullable = false, length = 64)
+    private String sha256; // ค่า SHA-256 ของเนื้อหาไฟล์
+
+    private long size; // ขนาดไฟล์ (ไบต์)
+
+    private int refCount; // จำนวนห้องที่ใช้รูปนี้
+}
@@ -0,0 +1,57 @@
+package com.phegondev.PhegonHotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// เหตุการณ์ที่รอส่งต่อ: written in the same transaction as the booking or room change it describes,
+// then delivered to the OutboxSubscriber beans by OutboxDispatcher. Read and written with JDBC.
+@Data
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_status_id", columnList = "status, id"),
+        @Index(name = "idx_outbox_room_id", columnList = "room_id, id")
+})
+public class OutboxEvent {
+
+    public static final String PENDING = "PENDING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String eventType;
+
+    // Events of one room are delivered in id order
+    @Column(nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 10)
+    private String status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Dispatcher instance holding the event until lockedUntil
+    @Column(length = 64)
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,17 @@
+package com.phegondev.PhegonHotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// แถวเดียวที่ ReplicaRouting เขียนบน primary ทุกครั้งที่ตรวจ: reading it back from the replica shows how far
+// replication is behind. Epoch millis, so no time zone or column precision gets in the way.
+@Data
+@Entity
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+
+    @Id
+    private Integer id;
+
+    private long beatAt;
+}
@@ -10,7 +10,11 @@ import java.util.List;
 // คลาสที่ใช้เก็บข้อมูลห้องพักในโรงแรม
 @Data
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", indexes = {
+        // Search filters on type (exact / IN) and a price range, then sorts by price
+        @Index(name = "idx_rooms_type_price", columnList = "room_type, room_price"),
+        @Index(name = "idx_rooms_price", columnList = "room_price")
+})
 public class Room {
 
     @Id
@@ -21,6 +25,7 @@ public class Room {
     private BigDecimal roomPrice; // ราคาห้องพัก
     private String roomPhotoUrl; // URL รูปภาพห้องพัก
     private String roomDescription; // รายละเอียดห้องพัก
+    private Integer capacity; // จำนวนผู้เข้าพักสูงสุด (null = not set, matches any guest count)
 
     // ความสัมพันธ์แบบ One-to-Many กับตาราง Booking
     @OneToMany(mappedBy = "room", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
@@ -34,6 +39,7 @@ public class Room {
                 ", roomPrice=" + roomPrice +
                 ", roomPhotoUrl='" + roomPhotoUrl + '\'' +
                 ", roomDescription='" + roomDescription + '\'' +
+                ", capacity=" + capacity +
                 '}';
     }
 }
@@ -0,0 +1,30 @@
+package com.phegondev.PhegonHotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+// One row per booked night of a room. The (room_id, night) primary key makes the
+// database reject a second booking for the same night, even across app instances.
+@Data
+@Entity
+@Table(name = "room_nights")
+@IdClass(RoomNightId.class)
+public class RoomNight {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Id
+    private LocalDate night;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Booking booking;
+}
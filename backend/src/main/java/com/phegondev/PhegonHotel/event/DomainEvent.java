@@ -0,0 +1,52 @@
+package com.phegondev.PhegonHotel.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Events written to the outbox together with the change they describe. Each one carries
+ * everything its subscribers need, since the rows it refers to may be gone by the time
+ * it is delivered. Delivery is ordered per room, so every event names its room.
+ */
+public sealed interface DomainEvent permits DomainEvent.BookingCreated, DomainEvent.BookingCancelled,
+        DomainEvent.RoomUpdated, DomainEvent.RoomDeleted {
+
+    Long roomId();
+
+    record BookingCreated(Long bookingId, String bookingConfirmationCode, Long roomId, String roomType,
+                          BigDecimal roomPrice, Long userId, String userEmail, String userName,
+                          LocalDate checkInDate, LocalDate checkOutDate, int totalNumOfGuest) implements DomainEvent {
+    }
+
+    record BookingCancelled(Long bookingId, String bookingConfirmationCode, Long roomId, String roomType,
+                            BigDecimal roomPrice, Long userId, String userEmail, String userName,
+                            LocalDate checkInDate, LocalDate checkOutDate, int totalNumOfGuest) implements DomainEvent {
+    }
+
+    record RoomUpdated(Long roomId, String roomType, BigDecimal roomPrice, Integer capacity,
+                       String previousRoomType, BigDecimal previousRoomPrice) implements DomainEvent {
+    }
+
+    // The room's bookings went with it; their stays are listed so rollups can be reversed
+    record RoomDeleted(Long roomId, String roomType, BigDecimal roomPrice, List<BookedStay> stays) implements DomainEvent {
+    }
+
+    record BookedStay(LocalDate checkInDate, LocalDate checkOutDate, int totalNumOfGuest) {
+    }
+
+    // Stored in outbox_events.event_type
+    static String typeOf(DomainEvent event) {
+        return event.getClass().getSimpleName();
+    }
+
+    static Class<? extends DomainEvent> classOf(String eventType) {
+        return switch (eventType) {
+            case "BookingCreated" -> BookingCreated.class;
+            case "BookingCancelled" -> BookingCancelled.class;
+            case "RoomUpdated" -> RoomUpdated.class;
+            case "RoomDeleted" -> RoomDeleted.class;
+            default -> throw new IllegalArgumentException("Unknown event type " + eventType);
+        };
+    }
+}
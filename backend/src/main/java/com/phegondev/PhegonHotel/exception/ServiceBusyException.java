@@ -0,0 +1,17 @@
+package com.phegondev.PhegonHotel.exception;
+
+// Thrown when a bounded resource (e.g. the password hashing pool) is saturated; callers answer 503 + Retry-After
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
@@ -1,11 +1,56 @@
 package com.phegondev.PhegonHotel.repo;
 
 import com.phegondev.PhegonHotel.entity.Booking;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    @EntityGraph(attributePaths = {"user", "room"})
     Optional<Booking> findByBookingConfirmationCode(String confirmationCode);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.room WHERE b.user.id = :userId ORDER BY b.id DESC")
+    List<Booking> findByUserIdWithRoom(Long userId);
+
+    // Half-open overlap, same rule as DateRange.overlaps; served by idx_bookings_room_dates
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.room.id = :roomId " +
+            "AND b.checkInDate < :checkOutDate AND b.checkOutDate > :checkInDate")
+    boolean existsOverlappingBooking(Long roomId, LocalDate checkInDate, LocalDate checkOutDate);
+
+    @Query("SELECT b.room.id, b.checkInDate, b.checkOutDate FROM Booking b WHERE b.checkOutDate > :fromDate")
+    List<Object[]> findBookedRangesEndingAfter(LocalDate fromDate);
+
+    // Existing stays of the given rooms that overlap [fromDate, toDate); one query for a whole bulk request
+    @Query("SELECT b.room.id, b.checkInDate, b.checkOutDate FROM Booking b WHERE b.room.id IN :roomIds " +
+            "AND b.checkInDate < :toDate AND b.checkOutDate > :fromDate")
+    List<Object[]> findBookedRangesForRooms(Collection<Long> roomIds, LocalDate fromDate, LocalDate toDate);
+
+    @Query("SELECT b.room.id FROM Booking b WHERE b.id = :bookingId")
+    Optional<Long> findRoomIdById(Long bookingId);
+
+    @Query("SELECT DISTINCT b.room.id FROM Booking b WHERE b.user.id = :userId")
+    List<Long> findRoomIdsByUserId(Long userId);
+
+    @Query("SELECT b.room.id, b.checkInDate, b.checkOutDate, b.totalNumOfGuest FROM Booking b WHERE b.room.id = :roomId")
+    List<Object[]> findBookedRangesByRoomId(Long roomId);
+
+    List<Booking> findAllByOrderByIdDesc(Limit limit);
+
+    List<Booking> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Booking b ORDER BY b.id DESC")
+    Stream<Booking> streamAllOrderByIdDesc();
 }
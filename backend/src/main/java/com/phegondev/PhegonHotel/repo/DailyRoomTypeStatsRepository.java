@@ -0,0 +1,17 @@
+package com.phegondev.PhegonHotel.repo;
+
+import com.phegondev.PhegonHotel.entity.DailyRoomTypeStats;
+import com.phegondev.PhegonHotel.entity.DailyRoomTypeStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyRoomTypeStatsRepository extends JpaRepository<DailyRoomTypeStats, DailyRoomTypeStatsId> {
+
+    // Primary key range scan: (stat_date, room_type) rows for the nights in [fromDate, toDate)
+    @Query("SELECT s FROM DailyRoomTypeStats s WHERE s.statDate >= :fromDate AND s.statDate < :toDate " +
+            "ORDER BY s.statDate, s.roomType")
+    List<DailyRoomTypeStats> findForNights(LocalDate fromDate, LocalDate toDate);
+}
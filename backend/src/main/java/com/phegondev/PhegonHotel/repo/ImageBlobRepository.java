@@ -0,0 +1,25 @@
+package com.phegondev.PhegonHotel.repo;
+
+import com.phegondev.PhegonHotel.entity.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + 1 WHERE b.path = :path")
+    int incrementRefCount(String path);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1 WHERE b.path = :path AND b.refCount > 0")
+    int decrementRefCount(String path);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.path = :path AND b.refCount <= 0")
+    int deleteIfUnreferenced(String path);
+}
@@ -1,23 +1,49 @@
 package com.phegondev.PhegonHotel.repo;
 
 import com.phegondev.PhegonHotel.entity.Room;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface RoomRepository extends JpaRepository<Room, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface RoomRepository extends JpaRepository<Room, Long>, JpaSpecificationExecutor<Room> {
+
+    @EntityGraph(attributePaths = "bookings")
+    Optional<Room> findWithBookingsById(Long id);
 
     @Query("SELECT DISTINCT r.roomType FROM Room r")
     List<String> findDistinctRoomTypes();
 
 
     @Query("SELECT r FROM Room r WHERE r.roomType LIKE %:roomType% AND r.id NOT IN (SELECT bk.room.id FROM Booking bk WHERE" +
-            "(bk.checkInDate <= :checkOutDate) AND (bk.checkOutDate >= :checkInDate))")
+            "(bk.checkInDate < :checkOutDate) AND (bk.checkOutDate > :checkInDate))")
     List<Room> findAvailableRoomsByDatesAndTypes(LocalDate checkInDate, LocalDate checkOutDate, String roomType);
 
 
     @Query("SELECT r FROM Room r WHERE r.id NOT IN (SELECT b.room.id FROM Booking b)")
     List<Room> getAllAvailableRooms();
+
+    @Query("SELECT r.id, r.roomType FROM Room r")
+    List<Object[]> findAllRoomIdsAndTypes();
+
+    @Query("SELECT r.roomType, COUNT(r) FROM Room r GROUP BY r.roomType")
+    List<Object[]> countRoomsByType();
+
+    List<Room> findAllByOrderByIdDesc(Limit limit);
+
+    List<Room> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Room r ORDER BY r.id DESC")
+    Stream<Room> streamAllOrderByIdDesc();
 }
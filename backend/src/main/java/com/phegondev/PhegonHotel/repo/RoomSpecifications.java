@@ -0,0 +1,78 @@
+package com.phegondev.PhegonHotel.repo;
+
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.RoomNight;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Predicates for the room search. All of them compare plain columns (no LIKE or functions),
+ * so MySQL can use idx_rooms_type_price / idx_rooms_price. A null argument means no filter.
+ */
+public final class RoomSpecifications {
+
+    private RoomSpecifications() {
+    }
+
+    public static Specification<Room> hasPrice() {
+        return (root, query, cb) -> cb.isNotNull(root.get("roomPrice"));
+    }
+
+    public static Specification<Room> roomTypeIn(Collection<String> roomTypes) {
+        if (roomTypes == null || roomTypes.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("roomType").in(roomTypes);
+    }
+
+    public static Specification<Room> priceAtLeast(BigDecimal minPrice) {
+        if (minPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<BigDecimal>get("roomPrice"), minPrice);
+    }
+
+    public static Specification<Room> priceAtMost(BigDecimal maxPrice) {
+        if (maxPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.<BigDecimal>get("roomPrice"), maxPrice);
+    }
+
+    // Rooms without a capacity predate the column and are not filtered out
+    public static Specification<Room> fitsGuests(Integer guests) {
+        if (guests == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(cb.isNull(root.get("capacity")),
+                cb.greaterThanOrEqualTo(root.<Integer>get("capacity"), guests));
+    }
+
+    // A room is free when none of its nights in [checkInDate, checkOutDate) has a room_nights row; the
+    // (room_id, night) primary key answers each probe with a range seek
+    public static Specification<Room> freeBetween(LocalDate checkInDate, LocalDate checkOutDate) {
+        return (root, query, cb) -> {
+            Subquery<Integer> taken = query.subquery(Integer.class);
+            Root<RoomNight> night = taken.from(RoomNight.class);
+            taken.select(cb.literal(1)).where(
+                    cb.equal(night.get("roomId"), root.get("id")),
+                    cb.greaterThanOrEqualTo(night.<LocalDate>get("night"), checkInDate),
+                    cb.lessThan(night.<LocalDate>get("night"), checkOutDate));
+            return cb.not(cb.exists(taken));
+        };
+    }
+
+    // Keyset continuation after (roomPrice, id) in the chosen sort direction
+    public static Specification<Room> after(BigDecimal roomPrice, Long id, boolean descending) {
+        return (root, query, cb) -> descending
+                ? cb.or(cb.lessThan(root.<BigDecimal>get("roomPrice"), roomPrice),
+                        cb.and(cb.equal(root.get("roomPrice"), roomPrice), cb.lessThan(root.<Long>get("id"), id)))
+                : cb.or(cb.greaterThan(root.<BigDecimal>get("roomPrice"), roomPrice),
+                        cb.and(cb.equal(root.get("roomPrice"), roomPrice), cb.greaterThan(root.<Long>get("id"), id)));
+    }
+}
@@ -1,13 +1,29 @@
 package com.phegondev.PhegonHotel.repo;
 
 import com.phegondev.PhegonHotel.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
     Optional<User> findByEmail(String email);
+
+    List<User> findAllByOrderByIdDesc(Limit limit);
+
+    List<User> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u FROM User u ORDER BY u.id DESC")
+    Stream<User> streamAllOrderByIdDesc();
 }
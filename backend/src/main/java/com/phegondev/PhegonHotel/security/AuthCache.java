@@ -0,0 +1,88 @@
+package com.phegondev.PhegonHotel.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.service.CustomUserDetailsService;
+import com.phegondev.PhegonHotel.utils.JWTUtils;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches for the per-request authentication path:
+ * verified token -> claims until the token expires, and email -> an AuthenticatedUser snapshot for a short TTL.
+ */
+@Component
+public class AuthCache {
+
+    private final JWTUtils jwtUtils;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final Cache<String, Claims> verifiedTokens;
+    private final Cache<String, UserDetails> principals;
+
+    public AuthCache(JWTUtils jwtUtils,
+                     CustomUserDetailsService customUserDetailsService,
+                     @Value("${security.auth-cache.max-tokens:10000}") long maxTokens,
+                     @Value("${security.auth-cache.max-principals:10000}") long maxPrincipals,
+                     @Value("${security.auth-cache.principal-ttl:60s}") Duration principalTtl) {
+        this.jwtUtils = jwtUtils;
+        this.customUserDetailsService = customUserDetailsService;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxTokens)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxPrincipals)
+                .expireAfterWrite(principalTtl)
+                .build();
+    }
+
+    // Parses and verifies the token on first sight only; invalid tokens throw and are not cached
+    public Claims verifiedClaims(String token) {
+        return verifiedTokens.get(token, jwtUtils::parseClaims);
+    }
+
+    public UserDetails principal(String email) {
+        return principals.get(email, this::loadPrincipal);
+    }
+
+    // Call when a user is deleted or their role changes
+    public void evictPrincipal(String email) {
+        principals.invalidate(email);
+    }
+
+    // Cache a snapshot rather than the entity, which drags its persistence state and lazy bookings along
+    private UserDetails loadPrincipal(String email) {
+        return AuthenticatedUser.of((User) customUserDetailsService.loadUserByUsername(email));
+    }
+
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.phegondev.PhegonHotel.security;
+
+import com.phegondev.PhegonHotel.exception.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt on a dedicated pool with a fixed number of threads and a bounded queue, so login and
+ * registration spikes use at most that many cores and the rest of the API keeps its CPU.
+ * When the queue is full, or a hash waits longer than maxWait, callers get ServiceBusyException.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final long retryAfterSeconds;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration maxWait, Duration retryAfter) {
+        this(new BCryptPasswordEncoder(strength), threads, queueCapacity, maxWait, retryAfter);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait, Duration retryAfter) {
+        this.delegate = delegate;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Re-hashes a password stored with a lower strength. Best effort: re-hashing costs another BCrypt
+     * round, so it is skipped while anything is queued, and a saturated pool yields empty instead of
+     * ServiceBusyException, so it never turns a successful login into a 503.
+     */
+    public Optional<String> tryUpgrade(String encodedPassword, CharSequence rawPassword) {
+        if (!delegate.upgradeEncoding(encodedPassword) || !executor.getQueue().isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(encode(rawPassword));
+        } catch (ServiceBusyException e) {
+            logger.debug("Skipping password hash upgrade, hashing pool is busy");
+            return Optional.empty();
+        }
+    }
+
+    public int queuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing queue full ({} waiting), rejecting request", executor.getQueue().size());
+            throw new ServiceBusyException("Too many login attempts in progress, please retry shortly", retryAfterSeconds);
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            // A cancelled hash still holds its queue slot until a worker reaches it
+            executor.purge();
+            throw new ServiceBusyException("Too many login attempts in progress, please retry shortly", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.phegondev.PhegonHotel.security;
 
 
-import com.phegondev.PhegonHotel.service.CustomUserDetailsService;
 import com.phegondev.PhegonHotel.utils.JWTUtils;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,7 +24,7 @@ public class JWTAuthFilter extends OncePerRequestFilter {
     @Autowired
     private JWTUtils jwtUtils;
     @Autowired
-    private CustomUserDetailsService customUserDetailsService;
+    private AuthCache authCache;
 
 
     @Override
@@ -40,11 +40,13 @@ public class JWTAuthFilter extends OncePerRequestFilter {
         }
 
         jwtToken = authHeader.substring(7);
-        userEmail = jwtUtils.extractUsername(jwtToken);
+        // One signature check per token lifetime, and no database lookup while the principal is cached
+        Claims claims = authCache.verifiedClaims(jwtToken);
+        userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
-            if (jwtUtils.isValidToken(jwtToken, userDetails)) {
+            UserDetails userDetails = authCache.principal(userEmail);
+            if (jwtUtils.isValidToken(claims, userDetails)) {
                 SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
                 UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -2,6 +2,7 @@ package com.phegondev.PhegonHotel.security;
 
 import com.phegondev.PhegonHotel.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,11 +15,12 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 // คลาสที่กำหนดการตั้งค่าความปลอดภัยของระบบ
 @Configuration
 @EnableMethodSecurity
@@ -30,6 +32,17 @@ public class SecurityConfig {
     @Autowired
     private JWTAuthFilter jwtAuthFilter;
 
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    @Value("${security.password.threads:#{T(java.lang.Math).max(1, T(java.lang.Runtime).getRuntime().availableProcessors() / 2)}}")
+    private int hashingThreads;
+    @Value("${security.password.queue:64}")
+    private int hashingQueue;
+    @Value("${security.password.max-wait:5s}")
+    private Duration hashingMaxWait;
+    @Value("${security.password.retry-after:2s}")
+    private Duration hashingRetryAfter;
+
     // กำหนดการตั้งค่าความปลอดภัยหลัก
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
@@ -37,6 +50,10 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests(request -> request
                         .requestMatchers("/auth/**", "/rooms/**", "/bookings/**", "/images/**", "/debug/**").permitAll()
+                        // Actuator only listens on the loopback management port; probes and the Prometheus scraper
+                        // have no JWT, every other actuator endpoint is admin only
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
@@ -54,10 +71,10 @@ public class SecurityConfig {
         return daoAuthenticationProvider;
     }
 
-    // กำหนดการเข้ารหัสรหัสผ่าน
+    // กำหนดการเข้ารหัสรหัสผ่าน (BCrypt บน thread pool แยก จำกัดจำนวนคิว)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(bcryptStrength, hashingThreads, hashingQueue, hashingMaxWait, hashingRetryAfter);
     }
 
     // กำหนดการจัดการการยืนยันตัวตน
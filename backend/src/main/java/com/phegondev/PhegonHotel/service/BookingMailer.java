@@ -0,0 +1,75 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.event.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Booking confirmation and cancellation emails. Until an SMTP relay is configured the messages are
+ * written as .eml files to mail.sink.dir, one per outbox event; a redelivered event rewrites the
+ * same file, so a guest never gets the same message twice.
+ */
+@Service
+public class BookingMailer implements OutboxSubscriber {
+    private static final Logger logger = LoggerFactory.getLogger(BookingMailer.class);
+
+    @Value("${mail.sink.dir:mail-outbox}")
+    private String sinkDir;
+
+    @Value("${mail.from:no-reply@phegonhotel.local}")
+    private String from;
+
+    @Override
+    public void handle(long eventId, DomainEvent event) throws IOException {
+        if (event instanceof DomainEvent.BookingCreated created) {
+            write(eventId, created.userEmail(), "Booking confirmed: " + created.bookingConfirmationCode(),
+                    "Dear " + created.userName() + ",\n\n"
+                            + "Your booking " + created.bookingConfirmationCode() + " is confirmed.\n"
+                            + "Room: " + created.roomType() + "\n"
+                            + "Check in: " + created.checkInDate() + "\n"
+                            + "Check out: " + created.checkOutDate() + "\n"
+                            + "Guests: " + created.totalNumOfGuest() + "\n");
+        } else if (event instanceof DomainEvent.BookingCancelled cancelled) {
+            write(eventId, cancelled.userEmail(), "Booking cancelled: " + cancelled.bookingConfirmationCode(),
+                    "Dear " + cancelled.userName() + ",\n\n"
+                            + "Your booking " + cancelled.bookingConfirmationCode() + " for "
+                            + cancelled.checkInDate() + " to " + cancelled.checkOutDate() + " has been cancelled.\n");
+        }
+    }
+
+    // Written to a temp file and moved into place, so readers of the directory never see half a message
+    private void write(long eventId, String to, String subject, String body) throws IOException {
+        if (to == null || to.isBlank()) {
+            return;
+        }
+        Path dir = Paths.get(sinkDir);
+        Files.createDirectories(dir);
+        Path target = dir.resolve("event-" + eventId + ".eml");
+        Path temp = Files.createTempFile(dir, "event-" + eventId, ".tmp");
+        String message = "From: " + from + "\r\n"
+                + "To: " + to + "\r\n"
+                + "Subject: " + subject + "\r\n"
+                + "Date: " + DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now()) + "\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n"
+                + "\r\n"
+                + body.replace("\n", "\r\n");
+        try {
+            Files.writeString(temp, message, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.debug("Wrote mail for outbox event {} to {}", eventId, target);
+    }
+}
@@ -0,0 +1,284 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.utils.Utils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized JSON of the room catalog endpoints (/rooms/all, /rooms/types, /rooms/all-available-rooms),
+ * kept as identity, gzip and deflate bytes so a request only copies them out. Room changes bump the rooms
+ * version and booking changes the bookings version (after commit); a view is rebuilt on the first request
+ * after a version it depends on moves, or after max-age, which bounds staleness from changes made on other
+ * instances. ETags are derived from the JSON itself, so a rebuild that produces the same document keeps
+ * answering 304 to clients that already have it.
+ */
+@Service
+public class CatalogSnapshots {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshots.class);
+
+    public enum View {
+        ALL_ROOMS(false),
+        ROOM_TYPES(false),
+        // Rooms without any booking
+        AVAILABLE_ROOMS(true);
+
+        private final boolean dependsOnBookings;
+
+        View(boolean dependsOnBookings) {
+            this.dependsOnBookings = dependsOnBookings;
+        }
+    }
+
+    public enum Encoding {
+        GZIP("gzip"),
+        DEFLATE("deflate"),
+        IDENTITY(null);
+
+        private final String contentEncoding;
+
+        Encoding(String contentEncoding) {
+            this.contentEncoding = contentEncoding;
+        }
+
+        // Value for the Content-Encoding header; null for identity
+        public String contentEncoding() {
+            return contentEncoding;
+        }
+    }
+
+    /**
+     * One version of a view. {@link #body} and {@link #eTag} take the encoding chosen with
+     * {@link #negotiate}; each encoding has its own strong ETag since its bytes differ.
+     */
+    public record Snapshot(long roomsVersion, long bookingsVersion, long builtAt, String digest,
+                           byte[] identity, byte[] gzip, byte[] deflate) {
+
+        public Encoding negotiate(String acceptEncoding) {
+            if (accepts(acceptEncoding, "gzip")) {
+                return Encoding.GZIP;
+            }
+            if (accepts(acceptEncoding, "deflate")) {
+                return Encoding.DEFLATE;
+            }
+            return Encoding.IDENTITY;
+        }
+
+        public byte[] body(Encoding encoding) {
+            return switch (encoding) {
+                case GZIP -> gzip;
+                case DEFLATE -> deflate;
+                case IDENTITY -> identity;
+            };
+        }
+
+        public String eTag(Encoding encoding) {
+            return encoding == Encoding.IDENTITY ? "\"" + digest + "\"" : "\"" + digest + "-" + encoding.contentEncoding + "\"";
+        }
+    }
+
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catalog.snapshot.max-age:60s}")
+    private Duration maxAge;
+
+    private final AtomicLong roomsVersion = new AtomicLong();
+    private final AtomicLong bookingsVersion = new AtomicLong();
+    private final Map<View, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // Locks rather than synchronized, so a virtual thread waiting for a build does not pin its carrier
+    private final Map<View, Lock> buildLocks = new EnumMap<>(View.class);
+
+    public CatalogSnapshots() {
+        for (View view : View.values()) {
+            buildLocks.put(view, new ReentrantLock());
+        }
+    }
+
+    /**
+     * Returns the current snapshot of {@code view}, building it first if it is missing or outdated.
+     * Returns null when it can't be built, so the caller can answer through the regular service path.
+     */
+    public Snapshot get(View view) {
+        Snapshot snapshot = current(view);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        // One build per view at a time; requests that waited for it find the fresh snapshot
+        Lock buildLock = buildLocks.get(view);
+        buildLock.lock();
+        try {
+            snapshot = current(view);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            try {
+                snapshot = build(view);
+            } catch (Exception e) {
+                logger.warn("Could not build the {} catalog snapshot", view, e);
+                return null;
+            }
+            snapshots.put(view, snapshot);
+            return snapshot;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    // Rooms added, updated, deleted or imported
+    public void roomsChanged() {
+        afterCommit(roomsVersion::incrementAndGet);
+    }
+
+    // Bookings created or removed (including by deleting a room or a user)
+    public void bookingsChanged() {
+        afterCommit(bookingsVersion::incrementAndGet);
+    }
+
+    private Snapshot current(View view) {
+        Snapshot snapshot = snapshots.get(view);
+        if (snapshot == null
+                || snapshot.roomsVersion() != roomsVersion.get()
+                || view.dependsOnBookings && snapshot.bookingsVersion() != bookingsVersion.get()
+                || System.currentTimeMillis() - snapshot.builtAt() > maxAge.toMillis()) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(View view) throws IOException, NoSuchAlgorithmException {
+        long started = System.nanoTime();
+        // Read the versions before the data, so a change committed meanwhile still outdates this snapshot
+        long rooms = roomsVersion.get();
+        long bookings = bookingsVersion.get();
+        // A read-write transaction keeps the read on the primary even when a replica is configured
+        Object body = transactionTemplate.<Object>execute(status -> switch (view) {
+            case ALL_ROOMS -> roomList(roomRepository.findAll(Sort.by(Sort.Direction.DESC, "id")));
+            case ROOM_TYPES -> roomRepository.findDistinctRoomTypes();
+            case AVAILABLE_ROOMS -> roomList(roomRepository.getAllAvailableRooms());
+        });
+        byte[] identity = objectMapper.writeValueAsBytes(body);
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity);
+        Snapshot snapshot = new Snapshot(rooms, bookings, System.currentTimeMillis(),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22),
+                identity, gzip(identity), deflate(identity));
+        meterRegistry.counter("hotel.catalog.snapshot.builds", "view", view.name().toLowerCase(Locale.ROOT)).increment();
+        logger.debug("Built {} catalog snapshot: {} bytes, {} gzip, {} deflate in {} ms", view, identity.length,
+                snapshot.gzip().length, snapshot.deflate().length, (System.nanoTime() - started) / 1_000_000);
+        return snapshot;
+    }
+
+    private static Response roomList(List<Room> rooms) {
+        Response response = new Response();
+        response.setStatusCode(200);
+        response.setMessage("successful");
+        response.setRoomList(Utils.mapRoomListEntityToRoomListDTO(rooms));
+        return response;
+    }
+
+    // Built once per version, so spend the CPU on the smallest output
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new BestGzipOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    // HTTP's "deflate" is the zlib format, which is what Deflater writes by default
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(data);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    // Accept-Encoding lists codings with optional q values; q=0 means "not acceptable"
+    private static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String name = params[0].trim();
+            if (name.equalsIgnoreCase(coding) || name.equals("*")) {
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=") && isZero(param.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality.trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void afterCommit(Runnable bump) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+
+    private static final class BestGzipOutputStream extends GZIPOutputStream {
+        private BestGzipOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.utils.ImageVariant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates resized JPEG derivatives (see ImageVariant) next to each original photo,
+ * on a small bounded pool so uploads don't wait for image processing.
+ * Until a derivative exists the original is served in its place. Derivatives are only ever made from
+ * originals, and sources whose header declares more than max-source-pixels are never decoded.
+ */
+@Service
+public class ImageDerivativeService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final String DERIVATIVE_EXTENSION = ".jpg";
+
+    @Value("${file.images.derivative-threads:2}")
+    private int threads;
+
+    @Value("${file.images.derivative-queue:100}")
+    private int queueCapacity;
+
+    @Value("${file.images.derivative-quality:0.8}")
+    private float quality;
+
+    // A small compressed file can declare a huge canvas; decoding allocates width * height * 4 bytes
+    @Value("${file.images.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    @Autowired
+    private Environment environment;
+
+    private ThreadPoolExecutor executor;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        // Resizing is CPU bound, so the pool stays bounded in both modes; only the worker threads change
+        ThreadFactory threadFactory;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            threadFactory = new VirtualThreadTaskExecutor("image-derivatives-").getVirtualThreadFactory();
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "image-derivatives-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public Path derivativePath(Path original, ImageVariant variant) {
+        String fileName = original.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return original.resolveSibling(baseName + "_" + variant.paramName() + DERIVATIVE_EXTENSION);
+    }
+
+    // Derivatives sit next to their original as <name>_<variant>.jpg; originals are hash or UUID names without '_'
+    public boolean isDerivative(Path path) {
+        String fileName = path.getFileName().toString();
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (fileName.endsWith("_" + variant.paramName() + DERIVATIVE_EXTENSION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues generation of all variants; a full queue only means originals are served for now.
+     * The future completes when the queued generation finishes, or at once when nothing was queued.
+     */
+    public CompletableFuture<Void> generateAsync(Path original) {
+        if (isDerivative(original)) {
+            logger.warn("Refusing to generate derivatives of derivative {}", original.getFileName());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!inFlight.add(original)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    generate(original);
+                } finally {
+                    inFlight.remove(original);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(original);
+            logger.warn("Derivative queue full, skipping {}", original.getFileName());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    public void deleteDerivatives(Path original) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            try {
+                Files.deleteIfExists(derivativePath(original, variant));
+            } catch (IOException e) {
+                logger.error("Failed to delete derivative of {}: {}", original, e.getMessage());
+            }
+        }
+    }
+
+    void generate(Path original) {
+        long started = System.nanoTime();
+        try {
+            BufferedImage source = readSource(original);
+            if (source == null) {
+                return;
+            }
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path target = derivativePath(original, variant);
+                if (!Files.exists(target)) {
+                    writeJpeg(resize(source, variant.getWidth()), target);
+                }
+            }
+            logger.debug("Generated derivatives for {} in {} ms", original.getFileName(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to generate derivatives for {}: {}", original, e.getMessage(), e);
+        }
+    }
+
+    // Returns null, serving the original only, when no reader knows the format or the declared size is too large
+    private BufferedImage readSource(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                logger.warn("No ImageIO reader for {}, serving original only", original.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Only the header is read here
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > maxSourcePixels) {
+                    logger.warn("Image {} declares {}x{} pixels, over the {} pixel limit; serving original only",
+                            original.getFileName(), width, height, maxSourcePixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int maxWidth) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        // JPEG has no alpha channel, so transparent areas are flattened onto white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        // Write to a temp file and move it into place so a half-written derivative is never served
+        Path temp = Files.createTempFile(target.getParent(), ".derivative-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
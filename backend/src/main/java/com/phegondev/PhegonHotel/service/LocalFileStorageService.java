@@ -1,92 +1,224 @@
 package com.phegondev.PhegonHotel.service;
 
+import com.phegondev.PhegonHotel.entity.ImageBlob;
 import com.phegondev.PhegonHotel.exception.OurException;
+import com.phegondev.PhegonHotel.repo.ImageBlobRepository;
+import com.phegondev.PhegonHotel.utils.LimitedInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Content-addressed image store. Uploads are streamed once into the store while their SHA-256
+ * is computed, then moved to {@code ab/cd/<sha256>.<ext>}. Identical uploads share one file,
+ * and image_blobs.ref_count decides when it can be deleted.
+ * Files written before this layout existed ({@code /images/<uuid>.<ext>}) are still served and deleted as before.
+ */
 @Service
 public class LocalFileStorageService {
     private static final Logger logger = LoggerFactory.getLogger(LocalFileStorageService.class);
 
+    static final String INCOMING_DIR = ".incoming";
+    private static final String IMAGE_URL_PREFIX = "/images/";
+    private static final int LOCK_STRIPES = 64;
+
     @Value("${file.upload.dir}")
     private String uploadDir;
 
-    public String saveImageToLocal(MultipartFile photo) {
+    // Per-image cap; also covers photos read from a /rooms/import zip, which does not go through multipart
+    @Value("${file.upload.max-image-size:10MB}")
+    private DataSize maxImageSize;
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    // Serializes ref counting and file moves per blob so a delete can't remove a file that is being re-referenced
+    private final Lock[] blobLocks = new Lock[LOCK_STRIPES];
+
+    public LocalFileStorageService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // Result of streaming one upload into the store's incoming directory
+    record StoredContent(String path, String sha256, long size, Path incoming) {
+    }
+
+    /**
+     * Stores an uploaded photo without referencing it. The caller calls {@link #retainImage} in the
+     * transaction that saves the row pointing at the photo, so the count only moves if that row commits,
+     * and {@link #discardIfUnreferenced} when the transaction fails.
+     */
+    public String storeImageToLocal(MultipartFile photo) {
+        if (photo == null || photo.isEmpty()) {
+            logger.error("Failed to save image: File is empty or null");
+            throw new OurException("Cannot save empty file");
+        }
+        try (InputStream in = photo.getInputStream()) {
+            return storeImage(in, photo.getOriginalFilename(), false);
+        } catch (IOException e) {
+            logger.error("Failed to save image: {}", e.getMessage(), e);
+            throw new OurException("Unable to save image locally: " + e.getMessage());
+        }
+    }
+
+    // Stores and references an image from any stream (zip entry of a bulk import); the caller closes the stream
+    public String saveImage(InputStream in, String originalFileName) {
+        return storeImage(in, originalFileName, true);
+    }
+
+    private String storeImage(InputStream in, String originalFileName, boolean reference) {
+        Path root = Paths.get(uploadDir);
+        StoredContent stored = null;
         try {
-            if (photo == null || photo.isEmpty()) {
-                logger.error("Failed to save image: File is empty or null");
+            long started = System.nanoTime();
+            stored = streamToStore(new LimitedInputStream(in, maxImageSize.toBytes()), root, extensionOf(originalFileName));
+            if (stored.size() == 0) {
                 throw new OurException("Cannot save empty file");
             }
 
-            // Create directory if it doesn't exist
-            File directory = new File(uploadDir);
-            if (!directory.exists()) {
-                logger.info("Creating directory: {}", directory.getAbsolutePath());
-                boolean created = directory.mkdirs();
-                if (!created) {
-                    logger.error("Failed to create directory: {}", directory.getAbsolutePath());
-                    throw new OurException("Failed to create directory for storing images");
+            boolean newFile;
+            Lock lock = lockFor(stored.path());
+            lock.lock();
+            try {
+                boolean known = reference
+                        ? imageBlobRepository.incrementRefCount(stored.path()) > 0
+                        : imageBlobRepository.existsById(stored.path());
+                if (!known) {
+                    ImageBlob blob = new ImageBlob();
+                    blob.setPath(stored.path());
+                    blob.setSha256(stored.sha256());
+                    blob.setSize(stored.size());
+                    blob.setRefCount(reference ? 1 : 0);
+                    imageBlobRepository.save(blob);
                 }
+                newFile = moveIntoPlace(stored, root);
+            } finally {
+                lock.unlock();
             }
-            
-            logger.debug("Directory exists and is writable: {}", directory.canWrite());
-            logger.debug("Directory absolute path: {}", directory.getAbsolutePath());
-
-            // Generate unique filename to avoid overwriting
-            String originalFileName = photo.getOriginalFilename();
-            if (originalFileName == null) {
-                originalFileName = "unknown.jpg";
+
+            String imageUrl = IMAGE_URL_PREFIX + stored.path();
+            logger.info("Image stored at {} ({} bytes, {}) in {} ms", imageUrl, stored.size(),
+                    newFile ? "new blob" : "deduplicated", (System.nanoTime() - started) / 1_000_000);
+
+            if (newFile) {
+                // Thumbnails are produced in the background; the original is served until they exist
+                imageDerivativeService.generateAsync(root.resolve(stored.path()));
             }
-            
-            String fileExtension = originalFileName.contains(".") ? 
-                originalFileName.substring(originalFileName.lastIndexOf(".")) : ".jpg";
-            String newFileName = UUID.randomUUID() + fileExtension;
-            
-            // Save file
-            Path targetLocation = Paths.get(uploadDir).resolve(newFileName);
-            logger.info("Saving file to: {}", targetLocation);
-            logger.info("Target file path exists: {}", Files.exists(targetLocation.getParent()));
-            
-            Files.copy(photo.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
-            // Return the URL where the image can be accessed
-            String imageUrl = "/images/" + newFileName;
-            logger.info("File saved successfully. Image URL: {}", imageUrl);
-            
-            // Verify file was actually created
-            File savedFile = targetLocation.toFile();
-            logger.info("File exists after save: {}, Size: {}", savedFile.exists(), savedFile.length());
-            
             return imageUrl;
-            
+
+        } catch (LimitedInputStream.SizeLimitExceededException e) {
+            throw new OurException("Image is larger than " + maxImageSize.toMegabytes() + "MB");
         } catch (IOException e) {
             logger.error("Failed to save image: {}", e.getMessage(), e);
             throw new OurException("Unable to save image locally: " + e.getMessage());
+        } finally {
+            if (stored != null) {
+                deleteQuietly(stored.incoming());
+            }
+        }
+    }
+
+    // Adds a reference to an image that is already in the store, e.g. a room re-imported from an export.
+    // Joins the caller's transaction, if any.
+    // Returns false for legacy files and unknown paths, which can't be shared safely.
+    public boolean retainImage(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(IMAGE_URL_PREFIX)) {
+            return false;
+        }
+        String relativePath = imageUrl.substring(IMAGE_URL_PREFIX.length());
+        Lock lock = lockFor(relativePath);
+        lock.lock();
+        try {
+            return imageBlobRepository.incrementRefCount(relativePath) > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes a stored image that no row references, e.g. after the transaction that should have retained it failed
+    public void discardIfUnreferenced(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(IMAGE_URL_PREFIX)) {
+            return;
+        }
+        String relativePath = imageUrl.substring(IMAGE_URL_PREFIX.length());
+        Path filePath = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(relativePath).normalize();
+        Lock lock = lockFor(relativePath);
+        lock.lock();
+        try {
+            if (imageBlobRepository.deleteIfUnreferenced(relativePath) > 0) {
+                imageDerivativeService.deleteDerivatives(filePath);
+                Files.deleteIfExists(filePath);
+                logger.info("Discarded unreferenced image file: {}", filePath);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to discard image {}: {}", imageUrl, e.getMessage(), e);
+        } finally {
+            lock.unlock();
         }
     }
-    
+
     public boolean deleteImage(String imageUrl) {
         try {
             if (imageUrl == null || imageUrl.isEmpty()) {
                 return false;
             }
-            
-            // Extract file name from image URL
-            String fileName = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-            Path filePath = Paths.get(uploadDir).resolve(fileName);
-            
-            // Delete file if it exists
+
+            Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+            String relativePath = imageUrl.startsWith(IMAGE_URL_PREFIX)
+                    ? imageUrl.substring(IMAGE_URL_PREFIX.length())
+                    : imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
+            Path filePath = root.resolve(relativePath).normalize();
+            if (!filePath.startsWith(root)) {
+                logger.warn("Refusing to delete image outside upload directory: {}", imageUrl);
+                return false;
+            }
+
+            if (imageBlobRepository.existsById(relativePath)) {
+                Lock lock = lockFor(relativePath);
+                lock.lock();
+                try {
+                    imageBlobRepository.decrementRefCount(relativePath);
+                    if (imageBlobRepository.deleteIfUnreferenced(relativePath) == 0) {
+                        logger.info("Image {} is still used by other rooms, keeping file", relativePath);
+                        return false;
+                    }
+                    imageDerivativeService.deleteDerivatives(filePath);
+                    Files.deleteIfExists(filePath);
+                    logger.info("Deleted image file: {}", filePath);
+                    return true;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            // Legacy upload without a blob row
+            imageDerivativeService.deleteDerivatives(filePath);
             if (Files.exists(filePath)) {
                 Files.delete(filePath);
                 logger.info("Deleted image file: {}", filePath);
@@ -98,4 +230,71 @@ public class LocalFileStorageService {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    // Single pass: bytes are hashed while they are written, so the upload is read exactly once
+    static StoredContent streamToStore(InputStream in, Path root, String extension) throws IOException {
+        Path incomingDir = root.resolve(INCOMING_DIR);
+        Files.createDirectories(incomingDir);
+        Path incoming = incomingDir.resolve(UUID.randomUUID() + ".part");
+
+        MessageDigest digest = sha256();
+        long size;
+        try (DigestInputStream hashing = new DigestInputStream(in, digest);
+             OutputStream out = Files.newOutputStream(incoming)) {
+            size = hashing.transferTo(out);
+        } catch (IOException e) {
+            deleteQuietly(incoming);
+            throw e;
+        }
+
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        String path = sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + extension;
+        return new StoredContent(path, sha256, size, incoming);
+    }
+
+    // Returns true when the bytes became a new file; duplicates just drop the incoming copy
+    static boolean moveIntoPlace(StoredContent stored, Path root) throws IOException {
+        Path target = root.resolve(stored.path());
+        if (Files.exists(target)) {
+            deleteQuietly(stored.incoming());
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(stored.incoming(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            deleteQuietly(stored.incoming());
+            return false;
+        }
+        return true;
+    }
+
+    static String extensionOf(String originalFileName) {
+        if (originalFileName == null || !originalFileName.contains(".")) {
+            return ".jpg";
+        }
+        String extension = originalFileName.substring(originalFileName.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+        // The extension becomes part of a stored path, so anything unusual falls back to .jpg
+        return extension.matches("\\.[a-z0-9]{1,10}") ? extension : ".jpg";
+    }
+
+    private Lock lockFor(String path) {
+        return blobLocks[Math.floorMod(path.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary upload {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.event.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains daily_room_type_stats: per night and room type, the room-nights sold, the guests
+ * staying and the revenue (the room's price per night). Booking saves and cancellations and room
+ * deletions reach it as outbox events, applied in the transaction that marks each event delivered;
+ * a parallel rebuild re-derives any range of nights from the bookings table, and runs nightly to
+ * pick up room price and type changes.
+ */
+@Service
+public class OccupancyRollups implements OutboxSubscriber {
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyRollups.class);
+
+    // H2 accepts this in MySQL mode too
+    private static final String UPSERT_SQL = "INSERT INTO daily_room_type_stats (stat_date, room_type, room_nights, guests, revenue) "
+            + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE room_nights = room_nights + VALUES(room_nights), "
+            + "guests = guests + VALUES(guests), revenue = revenue + VALUES(revenue)";
+    private static final String INSERT_SQL = "INSERT INTO daily_room_type_stats (stat_date, room_type, room_nights, guests, revenue) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_RANGE_SQL = "DELETE FROM daily_room_type_stats WHERE stat_date >= ? AND stat_date < ?";
+    private static final String PENDING_EVENTS_SQL = "SELECT event_type, payload FROM outbox_events "
+            + "WHERE status = 'PENDING' AND event_type IN ('BookingCreated', 'BookingCancelled', 'RoomDeleted')";
+    private static final String BOOKINGS_IN_RANGE_SQL = "SELECT b.check_in_date, b.check_out_date, b.total_num_of_guest, "
+            + "r.room_type, r.room_price FROM bookings b JOIN rooms r ON r.id = b.room_id "
+            + "WHERE b.check_in_date < ? AND b.check_out_date > ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${analytics.rollup.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public record RebuildResult(LocalDate fromDate, LocalDate toDate, int chunks, long rows, long millis) {
+    }
+
+    private record Key(LocalDate statDate, String roomType) {
+    }
+
+    // A stay with the room type and nightly price it is counted under
+    private record PricedStay(LocalDate checkIn, LocalDate checkOut, int guests, String roomType, BigDecimal price) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::statDate).thenComparing(Key::roomType);
+
+    private static final class Totals {
+        long roomNights;
+        long guests;
+        BigDecimal revenue = BigDecimal.ZERO;
+    }
+
+    @Override
+    public void handle(long eventId, DomainEvent event) {
+        apply(staysOf(event), signOf(event));
+    }
+
+    // +1 for events whose stays are added to the rollups, -1 for those removed, 0 for the rest
+    private static int signOf(DomainEvent event) {
+        if (event instanceof DomainEvent.BookingCreated) {
+            return 1;
+        }
+        if (event instanceof DomainEvent.BookingCancelled || event instanceof DomainEvent.RoomDeleted) {
+            return -1;
+        }
+        return 0;
+    }
+
+    private static List<PricedStay> staysOf(DomainEvent event) {
+        if (event instanceof DomainEvent.BookingCreated created) {
+            return List.of(new PricedStay(created.checkInDate(), created.checkOutDate(), created.totalNumOfGuest(),
+                    created.roomType(), created.roomPrice()));
+        }
+        if (event instanceof DomainEvent.BookingCancelled cancelled) {
+            return List.of(new PricedStay(cancelled.checkInDate(), cancelled.checkOutDate(), cancelled.totalNumOfGuest(),
+                    cancelled.roomType(), cancelled.roomPrice()));
+        }
+        if (event instanceof DomainEvent.RoomDeleted deleted) {
+            return deleted.stays().stream()
+                    .map(stay -> new PricedStay(stay.checkInDate(), stay.checkOutDate(), stay.totalNumOfGuest(),
+                            deleted.roomType(), deleted.roomPrice()))
+                    .toList();
+        }
+        return List.of();
+    }
+
+    private void apply(List<PricedStay> stays, int sign) {
+        if (stays.isEmpty() || sign == 0) {
+            return;
+        }
+        // Sorted so concurrent transactions lock the same rows in the same order
+        Map<Key, Totals> deltas = new TreeMap<>(KEY_ORDER);
+        for (PricedStay stay : stays) {
+            accumulate(deltas, stay, sign, stay.checkIn(), stay.checkOut());
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, toRows(deltas));
+    }
+
+    // Adds the stay's nights within [fromDate, toDate) to the totals, negated when sign is -1
+    private static void accumulate(Map<Key, Totals> totals, PricedStay stay, int sign, LocalDate fromDate, LocalDate toDate) {
+        String roomType = Objects.toString(stay.roomType(), "");
+        BigDecimal price = stay.price() != null ? stay.price() : BigDecimal.ZERO;
+        LocalDate first = stay.checkIn().isBefore(fromDate) ? fromDate : stay.checkIn();
+        LocalDate end = stay.checkOut().isAfter(toDate) ? toDate : stay.checkOut();
+        for (LocalDate night = first; night.isBefore(end); night = night.plusDays(1)) {
+            Totals dayTotals = totals.computeIfAbsent(new Key(night, roomType), key -> new Totals());
+            dayTotals.roomNights += sign;
+            dayTotals.guests += (long) sign * stay.guests();
+            dayTotals.revenue = sign > 0 ? dayTotals.revenue.add(price) : dayTotals.revenue.subtract(price);
+        }
+    }
+
+    // First start after the table was added: derive it from the bookings already there
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        Long rollups = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_room_type_stats", Long.class);
+        if (rollups != null && rollups == 0) {
+            rebuildAll();
+        }
+    }
+
+    @Scheduled(cron = "${analytics.rollup.rebuild-cron:0 15 0 * * *}")
+    public void nightlyRebuild() {
+        rebuildAll();
+    }
+
+    // Rebuilds every night that has bookings and drops rollups outside that span
+    public RebuildResult rebuildAll() {
+        LocalDate[] range = jdbcTemplate.queryForObject(
+                "SELECT MIN(check_in_date), MAX(check_out_date) FROM bookings",
+                (rs, rowNum) -> new LocalDate[]{
+                        rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class)});
+        if (range == null || range[0] == null) {
+            jdbcTemplate.update("DELETE FROM daily_room_type_stats");
+            LocalDate today = LocalDate.now();
+            return new RebuildResult(today, today, 0, 0, 0);
+        }
+        RebuildResult result = rebuild(range[0], range[1]);
+        if (result != null) {
+            jdbcTemplate.update("DELETE FROM daily_room_type_stats WHERE stat_date < ? OR stat_date >= ?",
+                    Date.valueOf(range[0]), Date.valueOf(range[1]));
+        }
+        return result;
+    }
+
+    /**
+     * Re-derives the rollups for the nights in [fromDate, toDate) from the bookings table.
+     * The range is split into calendar months that are rebuilt in parallel, each in its own
+     * transaction. Returns null when another rebuild is already running.
+     */
+    public RebuildResult rebuild(LocalDate fromDate, LocalDate toDate) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return null;
+        }
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            LocalDate chunkStart = fromDate;
+            while (chunkStart.isBefore(toDate)) {
+                LocalDate chunkEnd = chunkStart.withDayOfMonth(1).plusMonths(1);
+                if (chunkEnd.isAfter(toDate)) {
+                    chunkEnd = toDate;
+                }
+                LocalDate from = chunkStart;
+                LocalDate to = chunkEnd;
+                chunks.add(executor.submit(() -> rebuildChunkWithRetry(from, to)));
+                chunkStart = chunkEnd;
+            }
+
+            long rows = 0;
+            for (Future<Integer> chunk : chunks) {
+                rows += chunk.get();
+            }
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            logger.info("Occupancy rollups rebuilt for {} to {}: {} chunks, {} rows in {} ms",
+                    fromDate, toDate, chunks.size(), rows, millis);
+            return new RebuildResult(fromDate, toDate, chunks.size(), rows, millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            rebuilding.set(false);
+        }
+    }
+
+    // A booking committing into the same nights can deadlock with the chunk's delete; one retry settles it
+    private int rebuildChunkWithRetry(LocalDate fromDate, LocalDate toDate) {
+        try {
+            return rebuildChunk(fromDate, toDate);
+        } catch (PessimisticLockingFailureException e) {
+            logger.warn("Rollup chunk {} to {} hit a lock conflict, retrying: {}", fromDate, toDate, e.getMessage());
+            return rebuildChunk(fromDate, toDate);
+        }
+    }
+
+    private int rebuildChunk(LocalDate fromDate, LocalDate toDate) {
+        Integer rows = transactionTemplate.execute(status -> {
+            // Delete first: the locks make a delivery touching these nights wait for this transaction,
+            // and the reads below then see every event as either delivered or still pending
+            jdbcTemplate.update(DELETE_RANGE_SQL, Date.valueOf(fromDate), Date.valueOf(toDate));
+
+            Map<Key, Totals> totals = new HashMap<>();
+            jdbcTemplate.query(BOOKINGS_IN_RANGE_SQL, rs -> {
+                PricedStay stay = new PricedStay(rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class),
+                        rs.getInt(3), rs.getString(4), rs.getBigDecimal(5));
+                accumulate(totals, stay, 1, fromDate, toDate);
+            }, Date.valueOf(toDate), Date.valueOf(fromDate));
+
+            // The rollups only hold delivered events; leave out what pending ones will still apply
+            jdbcTemplate.query(PENDING_EVENTS_SQL, rs -> {
+                DomainEvent event = readEvent(rs.getString(1), rs.getString(2));
+                int sign = -signOf(event);
+                for (PricedStay stay : staysOf(event)) {
+                    accumulate(totals, stay, sign, fromDate, toDate);
+                }
+            });
+
+            Map<Key, Totals> sorted = new TreeMap<>(KEY_ORDER);
+            totals.forEach((key, value) -> {
+                if (value.roomNights != 0 || value.guests != 0 || value.revenue.signum() != 0) {
+                    sorted.put(key, value);
+                }
+            });
+            jdbcTemplate.batchUpdate(INSERT_SQL, toRows(sorted));
+            return sorted.size();
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private DomainEvent readEvent(String eventType, String payload) {
+        try {
+            return objectMapper.readValue(payload, DomainEvent.classOf(eventType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox event " + eventType, e);
+        }
+    }
+
+    private static List<Object[]> toRows(Map<Key, Totals> totals) {
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        for (Map.Entry<Key, Totals> entry : totals.entrySet()) {
+            Totals value = entry.getValue();
+            rows.add(new Object[]{Date.valueOf(entry.getKey().statDate()), entry.getKey().roomType(),
+                    value.roomNights, value.guests, value.revenue});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,54 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.entity.OutboxEvent;
+import com.phegondev.PhegonHotel.event.DomainEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends domain events to outbox_events. Must be called inside the transaction that makes the
+ * change, so the event exists exactly when the change does; OutboxDispatcher delivers it later.
+ */
+@Service
+public class Outbox {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_events (event_type, room_id, payload, status, attempts, "
+            + "next_attempt_at, created_at) VALUES (?, ?, ?, '" + OutboxEvent.PENDING + "', 0, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(DomainEvent event) {
+        appendAll(List.of(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            try {
+                rows.add(new Object[]{DomainEvent.typeOf(event), event.roomId(), objectMapper.writeValueAsString(event), now, now});
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize " + DomainEvent.typeOf(event), e);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
@@ -0,0 +1,287 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.entity.OutboxEvent;
+import com.phegondev.PhegonHotel.event.DomainEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains outbox_events to the OutboxSubscriber beans. Each poll takes a batch of due events,
+ * leases them to this instance, and delivers every room's events in id order on a small pool,
+ * different rooms in parallel. An event is marked DONE in the transaction its subscribers ran in;
+ * a failure reschedules it with exponential backoff and holds back that room's later events, so
+ * delivery is at least once and never out of order per room. Instances share the table safely:
+ * an event leased by another instance, or waiting for a retry, blocks only its own room.
+ */
+@Service
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    // Due, unleased events whose room has no earlier event waiting for a retry or leased elsewhere
+    private static final String SELECT_DUE_SQL = "SELECT e.id, e.room_id FROM outbox_events e "
+            + "WHERE e.status = 'PENDING' AND e.next_attempt_at <= ? AND (e.locked_until IS NULL OR e.locked_until < ?) "
+            + "AND NOT EXISTS (SELECT 1 FROM outbox_events b WHERE b.room_id = e.room_id AND b.status = 'PENDING' "
+            + "AND b.id < e.id AND (b.next_attempt_at > ? OR b.locked_until >= ?)) "
+            + "ORDER BY e.id LIMIT ?";
+    private static final String CLAIM_SQL = "UPDATE outbox_events SET locked_by = ?, locked_until = ? "
+            + "WHERE status = 'PENDING' AND (locked_until IS NULL OR locked_until < ?) AND id IN (%s)";
+    private static final String SELECT_CLAIMED_SQL = "SELECT id, event_type, room_id, payload, attempts, created_at "
+            + "FROM outbox_events WHERE locked_by = ? AND status = 'PENDING' ORDER BY id";
+    // Both only match while this instance still holds the lease: once it ran out and another instance
+    // claimed the event, that instance owns its delivery and retries
+    private static final String MARK_DONE_SQL = "UPDATE outbox_events SET status = 'DONE', attempts = attempts + 1, "
+            + "processed_at = ?, last_error = NULL, locked_by = NULL, locked_until = NULL "
+            + "WHERE id = ? AND locked_by = ? AND status = 'PENDING'";
+    private static final String MARK_FAILED_SQL = "UPDATE outbox_events SET status = ?, attempts = ?, next_attempt_at = ?, "
+            + "last_error = ?, locked_by = NULL, locked_until = NULL WHERE id = ? AND locked_by = ? AND status = 'PENDING'";
+    private static final String RELEASE_SQL = "UPDATE outbox_events SET locked_by = NULL, locked_until = NULL "
+            + "WHERE locked_by = ? AND status = 'PENDING'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private List<OutboxSubscriber> subscribers;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.dispatcher.enabled:true}")
+    private boolean enabled;
+    @Value("${outbox.batch-size:200}")
+    private int batchSize;
+    @Value("${outbox.dispatch-threads:4}")
+    private int dispatchThreads;
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+    @Value("${outbox.retry-backoff:1s}")
+    private Duration retryBackoff;
+    @Value("${outbox.lease:60s}")
+    private Duration lease;
+    @Value("${outbox.retention:7d}")
+    private Duration retention;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private ExecutorService executor;
+
+    private record Due(long id, Long roomId) {
+    }
+
+    private record Pending(long id, String eventType, Long roomId, String payload, int attempts, LocalDateTime createdAt) {
+    }
+
+    // Thrown inside the delivery transaction so the subscribers' writes roll back with it
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException(long eventId) {
+            super("Lease on outbox event " + eventId + " was lost during delivery");
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        // Keep going while polls come back full, so a backlog drains without waiting between batches
+        while (dispatchPending() >= batchSize) {
+            logger.debug("Outbox batch full, polling again");
+        }
+    }
+
+    /**
+     * Delivers one batch of due events and returns how many were taken (delivered or rescheduled).
+     * Returns 0 without doing anything when a dispatch is already running in this instance.
+     */
+    public int dispatchPending() {
+        if (!dispatching.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Due> due = jdbcTemplate.query(SELECT_DUE_SQL, (rs, rowNum) -> new Due(rs.getLong(1), rs.getLong(2)),
+                    now, now, now, now, batchSize);
+            if (due.isEmpty()) {
+                return 0;
+            }
+            List<Pending> claimed = claim(due, now);
+            Map<Long, List<Pending>> byRoom = new LinkedHashMap<>();
+            for (Pending event : orderedPrefixPerRoom(due, claimed)) {
+                byRoom.computeIfAbsent(event.roomId(), roomId -> new ArrayList<>()).add(event);
+            }
+
+            List<Future<Integer>> rooms = new ArrayList<>(byRoom.size());
+            for (List<Pending> events : byRoom.values()) {
+                rooms.add(executor.submit(() -> deliverInOrder(events)));
+            }
+            int taken = 0;
+            for (Future<Integer> room : rooms) {
+                taken += room.get();
+            }
+            return taken;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            logger.error("Outbox dispatch failed", e.getCause());
+            return 0;
+        } finally {
+            jdbcTemplate.update(RELEASE_SQL, instanceId);
+            dispatching.set(false);
+        }
+    }
+
+    private List<Pending> claim(List<Due> due, Timestamp now) {
+        Timestamp leaseEnd = Timestamp.valueOf(now.toLocalDateTime().plus(lease));
+        List<Object> args = new ArrayList<>(due.size() + 3);
+        args.add(instanceId);
+        args.add(leaseEnd);
+        args.add(now);
+        due.forEach(event -> args.add(event.id()));
+        jdbcTemplate.update(String.format(CLAIM_SQL, String.join(",", Collections.nCopies(due.size(), "?"))), args.toArray());
+        return jdbcTemplate.query(SELECT_CLAIMED_SQL, (rs, rowNum) -> new Pending(rs.getLong(1), rs.getString(2),
+                rs.getLong(3), rs.getString(4), rs.getInt(5), rs.getTimestamp(6).toLocalDateTime()), instanceId);
+    }
+
+    // If another instance won one of a room's due events, this one must not deliver that room's later events
+    private static List<Pending> orderedPrefixPerRoom(List<Due> due, List<Pending> claimed) {
+        Map<Long, Pending> claimedById = new HashMap<>();
+        claimed.forEach(event -> claimedById.put(event.id(), event));
+        Set<Long> blockedRooms = new HashSet<>();
+        List<Pending> deliverable = new ArrayList<>(claimed.size());
+        for (Due event : due) {
+            Pending pending = claimedById.get(event.id());
+            if (pending == null) {
+                blockedRooms.add(event.roomId());
+            } else if (!blockedRooms.contains(event.roomId())) {
+                deliverable.add(pending);
+            }
+        }
+        return deliverable;
+    }
+
+    private int deliverInOrder(List<Pending> events) {
+        int taken = 0;
+        for (Pending event : events) {
+            taken++;
+            if (!deliver(event)) {
+                break;
+            }
+        }
+        return taken;
+    }
+
+    // True when the room's next event may follow
+    private boolean deliver(Pending pending) {
+        try {
+            DomainEvent event = objectMapper.readValue(pending.payload(), DomainEvent.classOf(pending.eventType()));
+            transactionTemplate.executeWithoutResult(status -> {
+                for (OutboxSubscriber subscriber : subscribers) {
+                    try {
+                        subscriber.handle(pending.id(), event);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                }
+                if (jdbcTemplate.update(MARK_DONE_SQL, Timestamp.valueOf(LocalDateTime.now()), pending.id(), instanceId) == 0) {
+                    throw new LeaseLostException(pending.id());
+                }
+            });
+            meterRegistry.counter("hotel.outbox.delivered", "type", pending.eventType()).increment();
+            meterRegistry.timer("hotel.outbox.lag", "type", pending.eventType())
+                    .record(Duration.between(pending.createdAt(), LocalDateTime.now()));
+            return true;
+        } catch (LeaseLostException e) {
+            // The new holder delivers it and the room's later events; this attempt left nothing behind
+            logger.warn("{}, leaving it to its new holder", e.getMessage());
+            meterRegistry.counter("hotel.outbox.lease-lost", "type", pending.eventType()).increment();
+            return false;
+        } catch (Exception e) {
+            return recordFailure(pending, e);
+        }
+    }
+
+    private boolean recordFailure(Pending pending, Exception e) {
+        int attempts = pending.attempts() + 1;
+        String error = String.valueOf(e.getMessage());
+        error = error.length() > 500 ? error.substring(0, 500) : error;
+        if (attempts >= maxAttempts) {
+            logger.error("Outbox event {} ({}, room {}) failed {} times, giving up: {}",
+                    pending.id(), pending.eventType(), pending.roomId(), attempts, error, e);
+            if (jdbcTemplate.update(MARK_FAILED_SQL, OutboxEvent.FAILED, attempts,
+                    Timestamp.valueOf(LocalDateTime.now()), error, pending.id(), instanceId) == 0) {
+                // Leased elsewhere meanwhile: its new holder decides, and its room stays held back here
+                return false;
+            }
+            meterRegistry.counter("hotel.outbox.failed", "type", pending.eventType()).increment();
+            // Given up on, so it no longer holds the room back
+            return true;
+        }
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(MAX_BACKOFF) > 0) {
+            backoff = MAX_BACKOFF;
+        }
+        logger.warn("Outbox event {} ({}, room {}) failed, retry {} in {}: {}",
+                pending.id(), pending.eventType(), pending.roomId(), attempts, backoff, error);
+        jdbcTemplate.update(MARK_FAILED_SQL, OutboxEvent.PENDING, attempts,
+                Timestamp.valueOf(LocalDateTime.now().plus(backoff)), error, pending.id(), instanceId);
+        meterRegistry.counter("hotel.outbox.retried", "type", pending.eventType()).increment();
+        return false;
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 45 0 * * *}")
+    public void purgeDelivered() {
+        int purged = jdbcTemplate.update("DELETE FROM outbox_events WHERE status = 'DONE' AND processed_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        logger.info("Purged {} delivered outbox events older than {}", purged, retention);
+    }
+}
@@ -0,0 +1,14 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.event.DomainEvent;
+
+/**
+ * In-process consumer of outbox events. Events arrive after their transaction committed, at least
+ * once, and in order per room. handle runs inside the transaction that marks the event delivered,
+ * so database writes commit exactly once with it; anything else must tolerate a redelivery.
+ * Throwing makes the dispatcher retry the event (and hold back that room's later events).
+ */
+public interface OutboxSubscriber {
+
+    void handle(long eventId, DomainEvent event) throws Exception;
+}
@@ -0,0 +1,275 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.utils.DayBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory availability index: one day bitmap per room covering a rolling
+ * horizon starting today. A set bit means the night is booked.
+ * Reloaded from the bookings table at startup and every refresh interval, which also
+ * picks up bookings, cancellations and room changes made by other instances, and kept
+ * up to date incrementally by the booking and room services on this instance in between.
+ */
+@Service
+public class RoomAvailabilityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+
+    // Roughly two years of nights
+    static final int HORIZON_DAYS = 731;
+    // Suggestions further than this from the requested dates are not offered
+    static final int MAX_SHIFT_DAYS = 180;
+
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    private final Map<Long, RoomEntry> rooms = new HashMap<>();
+    private LocalDate horizonStart;
+    private boolean ready;
+    // Changes made on this instance while a reload reads the database, replayed onto its result
+    private List<Consumer<Map<Long, RoomEntry>>> pendingChanges;
+
+    /**
+     * Reloads every room and booked range from the database. The queries run without
+     * blocking searches; only swapping the result in takes the write lock.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${availability.index.refresh-interval-ms:30000}",
+            fixedDelayString = "${availability.index.refresh-interval-ms:30000}")
+    public void rebuild() {
+        reloadLock.lock();
+        try {
+            long started = System.nanoTime();
+            LocalDate today = LocalDate.now();
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<Long, RoomEntry> loaded = new HashMap<>();
+            int bookings = 0;
+            try {
+                for (Object[] row : roomRepository.findAllRoomIdsAndTypes()) {
+                    loaded.put((Long) row[0], new RoomEntry((String) row[1]));
+                }
+                for (Object[] row : bookingRepository.findBookedRangesEndingAfter(today)) {
+                    RoomEntry entry = loaded.get((Long) row[0]);
+                    if (entry != null) {
+                        entry.nights.set(offset(today, (LocalDate) row[1]), offset(today, (LocalDate) row[2]));
+                        bookings++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                rooms.clear();
+                rooms.putAll(loaded);
+                horizonStart = today;
+                pendingChanges.forEach(change -> change.accept(rooms));
+                pendingChanges = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("Availability index reloaded: {} rooms, {} bookings, horizon {} to {} in {} ms",
+                    loaded.size(), bookings, today, today.plusDays(HORIZON_DAYS),
+                    (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of rooms whose type contains {@code roomType} (case-insensitive) and which
+     * are free for every night in {@code [checkInDate, checkOutDate)}, or null when the
+     * index cannot answer (not built yet, or dates outside the horizon) and the caller
+     * should fall back to the database.
+     */
+    public List<Long> findAvailableRoomIds(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
+        lock.readLock().lock();
+        try {
+            if (!covers(checkInDate, checkOutDate)) {
+                return null;
+            }
+            String typeFilter = roomType == null ? "" : roomType.toLowerCase(Locale.ROOT);
+            int from = offset(checkInDate);
+            int to = offset(checkOutDate);
+            List<Long> roomIds = new ArrayList<>();
+            for (Map.Entry<Long, RoomEntry> entry : rooms.entrySet()) {
+                RoomEntry room = entry.getValue();
+                if (room.roomType.contains(typeFilter) && room.nights.isClear(from, to)) {
+                    roomIds.add(entry.getKey());
+                }
+            }
+            return roomIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A free stay of the requested length; shiftDays < 0 is earlier than asked, 0 is the asked dates in another room
+    public record FreeWindow(Long roomId, LocalDate checkInDate, LocalDate checkOutDate, int shiftDays, boolean sameRoom) {
+    }
+
+    /**
+     * Nearest free windows of the same length as {@code [checkInDate, checkOutDate)}, before and
+     * after the asked dates, in the asked room and in every room of the same type (exact type match).
+     * Ordered by distance from the asked dates; the asked room wins ties. Empty when the index
+     * cannot answer.
+     */
+    public List<FreeWindow> findNearestFreeWindows(Long roomId, LocalDate checkInDate, LocalDate checkOutDate, int limit) {
+        lock.readLock().lock();
+        try {
+            RoomEntry requested = rooms.get(roomId);
+            if (requested == null || !covers(checkInDate, checkOutDate)) {
+                return List.of();
+            }
+            int start = offset(checkInDate);
+            int length = offset(checkOutDate) - start;
+            int earliest = Math.max(offset(LocalDate.now()), Math.max(0, start - MAX_SHIFT_DAYS));
+
+            List<FreeWindow> windows = new ArrayList<>();
+            for (Map.Entry<Long, RoomEntry> entry : rooms.entrySet()) {
+                RoomEntry room = entry.getValue();
+                boolean sameRoom = entry.getKey().equals(roomId);
+                if (!sameRoom && !room.roomType.equals(requested.roomType)) {
+                    continue;
+                }
+                int after = room.nights.nextClearRun(sameRoom ? start + 1 : start, length);
+                if (after >= 0 && after - start <= MAX_SHIFT_DAYS) {
+                    windows.add(window(entry.getKey(), after, length, after - start, sameRoom));
+                }
+                int before = room.nights.previousClearRun(start - 1, length);
+                if (before >= earliest) {
+                    windows.add(window(entry.getKey(), before, length, before - start, sameRoom));
+                }
+            }
+            windows.sort(Comparator.comparingInt((FreeWindow window) -> Math.abs(window.shiftDays()))
+                    .thenComparing(window -> !window.sameRoom())
+                    .thenComparingInt(FreeWindow::shiftDays)
+                    .thenComparing(FreeWindow::roomId));
+            return windows.size() > limit ? new ArrayList<>(windows.subList(0, limit)) : windows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FreeWindow window(Long roomId, int start, int length, int shiftDays, boolean sameRoom) {
+        LocalDate checkIn = horizonStart.plusDays(start);
+        return new FreeWindow(roomId, checkIn, checkIn.plusDays(length), shiftDays, sameRoom);
+    }
+
+    public void markBooked(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        apply(target -> {
+            RoomEntry room = target.get(roomId);
+            if (room != null) {
+                room.nights.set(offset(checkInDate), offset(checkOutDate));
+            }
+        });
+    }
+
+    public void markReleased(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        apply(target -> {
+            RoomEntry room = target.get(roomId);
+            if (room != null) {
+                room.nights.clear(offset(checkInDate), offset(checkOutDate));
+            }
+        });
+    }
+
+    public void putRoom(Room room) {
+        Long roomId = room.getId();
+        String roomType = room.getRoomType();
+        apply(target -> {
+            // Keep the booked nights when only the room type changed
+            RoomEntry existing = target.get(roomId);
+            DayBitmap nights = existing != null ? existing.nights : new DayBitmap(HORIZON_DAYS);
+            target.put(roomId, new RoomEntry(roomType, nights));
+        });
+    }
+
+    public void removeRoom(Long roomId) {
+        apply(target -> target.remove(roomId));
+    }
+
+    private void apply(Consumer<Map<Long, RoomEntry>> change) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                change.accept(rooms);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean covers(LocalDate checkInDate, LocalDate checkOutDate) {
+        return ready
+                && checkInDate != null && checkOutDate != null
+                && checkOutDate.isAfter(checkInDate)
+                && !checkInDate.isBefore(horizonStart)
+                && !checkOutDate.isAfter(horizonStart.plusDays(HORIZON_DAYS));
+    }
+
+    private int offset(LocalDate date) {
+        return offset(horizonStart, date);
+    }
+
+    private static int offset(LocalDate start, LocalDate date) {
+        long days = date.toEpochDay() - start.toEpochDay();
+        return (int) Math.max(Math.min(days, HORIZON_DAYS), -1);
+    }
+
+    private static final class RoomEntry {
+        private final String roomType;
+        private final DayBitmap nights;
+
+        private RoomEntry(String roomType) {
+            this(roomType, new DayBitmap(HORIZON_DAYS));
+        }
+
+        private RoomEntry(String roomType, DayBitmap nights) {
+            this.roomType = roomType == null ? "" : roomType.toLowerCase(Locale.ROOT);
+            this.nights = nights;
+        }
+    }
+}
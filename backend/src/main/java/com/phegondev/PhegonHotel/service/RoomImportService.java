@@ -0,0 +1,453 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.config.CacheConfig;
+import com.phegondev.PhegonHotel.dto.RoomImportEvent;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.exception.OurException;
+import com.phegondev.PhegonHotel.utils.CsvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Bulk room import from a CSV or NDJSON manifest, on its own or inside a zip next to the photos it names.
+ * The manifest is read one row at a time, photos are stored through {@link LocalFileStorageService}
+ * as their rows are validated, and rooms are inserted in JDBC batches of {@value #BATCH_SIZE},
+ * one transaction per batch. Row errors and progress are reported to the sink as they happen.
+ *
+ * <p>Manifest columns (CSV header or NDJSON field names): roomType and roomPrice are required,
+ * roomDescription and capacity (max guests) are optional, and the photo is either {@code photo} (an entry name in the zip)
+ * or {@code roomPhotoUrl} (an http(s) URL, or an /images/ URL from an export of this catalog).
+ */
+@Service
+public class RoomImportService {
+    private static final Logger logger = LoggerFactory.getLogger(RoomImportService.class);
+
+    static final int BATCH_SIZE = 500;
+    static final int PROGRESS_EVERY = 100;
+    private static final int MAX_ROOM_TYPE_LENGTH = 255;
+    // Set by a manifest reader when a row could not be parsed at all
+    private static final String PARSE_ERROR = "__error";
+    private static final String INSERT_ROOM_SQL =
+            "INSERT INTO rooms (room_type, room_price, room_photo_url, room_description, capacity) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private LocalFileStorageService fileStorageService;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // A validated manifest row waiting for its batch insert
+    private record PendingRoom(long row, String roomType, BigDecimal roomPrice, String roomDescription,
+                               Integer capacity, String roomPhotoUrl) {
+    }
+
+    // Reads manifest rows as column name -> value; returns null at end of input
+    private interface ManifestReader {
+        Map<String, String> next() throws IOException;
+
+        long row();
+    }
+
+    public static boolean isSupportedManifest(String fileName) {
+        return fileName != null && manifestFormat(fileName) != null;
+    }
+
+    /**
+     * Imports every row of the manifest and returns the summary event, which is also the last
+     * event passed to the sink.
+     */
+    public RoomImportEvent importRooms(Path manifest, String manifestName, Consumer<RoomImportEvent> sink) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            return importRows(in, manifestName, null, sink);
+        }
+    }
+
+    /**
+     * Imports a zip whose root holds the manifest ({@code manifest.csv}, {@code manifest.ndjson} or
+     * {@code manifest.jsonl}); the manifest's {@code photo} column names other entries of the same zip.
+     */
+    public RoomImportEvent importArchive(Path archive, Consumer<RoomImportEvent> sink) throws IOException {
+        ZipFile zip;
+        try {
+            zip = new ZipFile(archive.toFile());
+        } catch (ZipException e) {
+            return rejectUpload("Upload is not a readable zip archive", sink);
+        }
+        try (zip) {
+            ZipEntry manifest = zip.stream()
+                    .filter(entry -> !entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).startsWith("manifest.")
+                            && isSupportedManifest(entry.getName()))
+                    .findFirst()
+                    .orElse(null);
+            if (manifest == null) {
+                return rejectUpload("Archive must contain manifest.csv, manifest.ndjson or manifest.jsonl at its root", sink);
+            }
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(zip.getInputStream(manifest), StandardCharsets.UTF_8))) {
+                return importRows(in, manifest.getName(), zip, sink);
+            }
+        }
+    }
+
+    private static RoomImportEvent rejectUpload(String message, Consumer<RoomImportEvent> sink) {
+        sink.accept(RoomImportEvent.error(1, message));
+        RoomImportEvent summary = RoomImportEvent.progress("summary", 0, 0, 1);
+        sink.accept(summary);
+        return summary;
+    }
+
+    private RoomImportEvent importRows(BufferedReader in, String manifestName, ZipFile photos,
+                                       Consumer<RoomImportEvent> sink) throws IOException {
+        long started = System.nanoTime();
+        long processed = 0;
+        long imported = 0;
+        long failed = 0;
+        List<PendingRoom> pending = new ArrayList<>(BATCH_SIZE);
+
+        try {
+            ManifestReader reader = null;
+            try {
+                reader = openManifest(in, manifestFormat(manifestName));
+            } catch (OurException | IOException e) {
+                sink.accept(RoomImportEvent.error(1, e.getMessage()));
+                failed++;
+            }
+
+            while (reader != null) {
+                Map<String, String> fields;
+                try {
+                    fields = reader.next();
+                } catch (IOException e) {
+                    // The rest of the manifest can't be trusted once the parser is lost
+                    sink.accept(RoomImportEvent.error(reader.row(), "Malformed manifest: " + e.getMessage()));
+                    failed++;
+                    break;
+                }
+                if (fields == null) {
+                    break;
+                }
+                processed++;
+
+                try {
+                    pending.add(toPendingRoom(reader.row(), fields, photos));
+                } catch (OurException e) {
+                    sink.accept(RoomImportEvent.error(reader.row(), e.getMessage()));
+                    failed++;
+                }
+
+                if (pending.size() == BATCH_SIZE) {
+                    int inserted = insertBatch(pending, sink);
+                    imported += inserted;
+                    failed += pending.size() - inserted;
+                    pending.clear();
+                }
+                if (processed % PROGRESS_EVERY == 0) {
+                    sink.accept(RoomImportEvent.progress("progress", processed, imported, failed));
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                int inserted = insertBatch(pending, sink);
+                imported += inserted;
+                failed += pending.size() - inserted;
+            }
+        } finally {
+            if (imported > 0) {
+                evictRoomCaches();
+            }
+        }
+
+        logger.info("Room import of {}: {} rows, {} imported, {} failed in {} ms", manifestName, processed,
+                imported, failed, (System.nanoTime() - started) / 1_000_000);
+        RoomImportEvent summary = RoomImportEvent.progress("summary", processed, imported, failed);
+        sink.accept(summary);
+        return summary;
+    }
+
+    private PendingRoom toPendingRoom(long row, Map<String, String> fields, ZipFile photos) {
+        if (fields.containsKey(PARSE_ERROR)) {
+            throw new OurException(fields.get(PARSE_ERROR));
+        }
+        String roomType = trimToNull(fields.get("roomtype"));
+        if (roomType == null) {
+            throw new OurException("roomType is required");
+        }
+        if (roomType.length() > MAX_ROOM_TYPE_LENGTH) {
+            throw new OurException("roomType is longer than " + MAX_ROOM_TYPE_LENGTH + " characters");
+        }
+        BigDecimal roomPrice = parsePrice(trimToNull(fields.get("roomprice")));
+        String roomDescription = trimToNull(fields.get("roomdescription"));
+        Integer capacity = parseCapacity(trimToNull(fields.get("capacity")));
+        String photo = trimToNull(fields.get("photo"));
+        String roomPhotoUrl = trimToNull(fields.get("roomphotourl"));
+
+        // Photos are stored last so a row that fails validation never leaves a file behind
+        String storedUrl;
+        if (photo != null) {
+            storedUrl = storePhoto(photo, photos);
+        } else if (roomPhotoUrl != null) {
+            storedUrl = referencePhoto(roomPhotoUrl);
+        } else {
+            throw new OurException("photo or roomPhotoUrl is required");
+        }
+        return new PendingRoom(row, roomType, roomPrice, roomDescription, capacity, storedUrl);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value == null) {
+            throw new OurException("roomPrice is required");
+        }
+        try {
+            BigDecimal price = new BigDecimal(value);
+            if (price.signum() <= 0) {
+                throw new OurException("roomPrice must be positive");
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            throw new OurException("roomPrice is not a number: " + value);
+        }
+    }
+
+    private static Integer parseCapacity(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            int capacity = Integer.parseInt(value);
+            if (capacity <= 0) {
+                throw new OurException("capacity must be positive");
+            }
+            return capacity;
+        } catch (NumberFormatException e) {
+            throw new OurException("capacity is not a whole number: " + value);
+        }
+    }
+
+    private String storePhoto(String name, ZipFile photos) {
+        if (photos == null) {
+            throw new OurException("photo " + name + " given but the manifest was not uploaded in a zip");
+        }
+        ZipEntry entry = photos.getEntry(name);
+        if (entry == null || entry.isDirectory()) {
+            throw new OurException("photo " + name + " is not in the zip");
+        }
+        try (InputStream in = photos.getInputStream(entry)) {
+            return fileStorageService.saveImage(in, name);
+        } catch (IOException e) {
+            throw new OurException("Could not read photo " + name + ": " + e.getMessage());
+        }
+    }
+
+    private String referencePhoto(String url) {
+        String lower = url.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("http://") || lower.startsWith("https://")) {
+            return url;
+        }
+        // Local images are shared by reference count, so re-importing an export never copies files
+        if (fileStorageService.retainImage(url)) {
+            return url;
+        }
+        throw new OurException("roomPhotoUrl " + url + " is neither an http(s) URL nor a stored image");
+    }
+
+    // Returns how many rows were inserted; a failed batch is reported row by row and its photos released
+    private int insertBatch(List<PendingRoom> batch, Consumer<RoomImportEvent> sink) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_ROOM_SQL, Statement.RETURN_GENERATED_KEYS),
+                            new BatchPreparedStatementSetter() {
+                                @Override
+                                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                    PendingRoom room = batch.get(i);
+                                    ps.setString(1, room.roomType());
+                                    ps.setBigDecimal(2, room.roomPrice());
+                                    ps.setString(3, room.roomPhotoUrl());
+                                    ps.setString(4, room.roomDescription());
+                                    ps.setObject(5, room.capacity(), Types.INTEGER);
+                                }
+
+                                @Override
+                                public int getBatchSize() {
+                                    return batch.size();
+                                }
+                            }, keyHolder));
+        } catch (RuntimeException e) {
+            logger.error("Room import batch of {} rows failed: {}", batch.size(), e.getMessage(), e);
+            for (PendingRoom room : batch) {
+                sink.accept(RoomImportEvent.error(room.row(), "Batch insert failed: " + e.getMessage()));
+                if (room.roomPhotoUrl().startsWith("/images/")) {
+                    fileStorageService.deleteImage(room.roomPhotoUrl());
+                }
+            }
+            return 0;
+        }
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingRoom pendingRoom = batch.get(i);
+            Room room = new Room();
+            room.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            room.setRoomType(pendingRoom.roomType());
+            room.setRoomPrice(pendingRoom.roomPrice());
+            room.setCapacity(pendingRoom.capacity());
+            availabilityIndex.putRoom(room);
+        }
+        return batch.size();
+    }
+
+    private void evictRoomCaches() {
+        for (String name : List.of(CacheConfig.ROOMS, CacheConfig.ROOM_TYPES)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        catalogSnapshots.roomsChanged();
+    }
+
+    private static String manifestFormat(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return "csv";
+        }
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+            return "ndjson";
+        }
+        return null;
+    }
+
+    private ManifestReader openManifest(BufferedReader in, String format) throws IOException {
+        if (format == null) {
+            throw new OurException("Manifest must be a .csv, .ndjson or .jsonl file");
+        }
+        return "csv".equals(format) ? csvManifest(in) : ndjsonManifest(in);
+    }
+
+    // Header names are matched case-insensitively; a leading byte order mark is ignored
+    private static ManifestReader csvManifest(BufferedReader in) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new OurException("Manifest is empty");
+        }
+        List<String> columns = new ArrayList<>(header.size());
+        for (String column : header) {
+            columns.add(column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+        }
+        if (!columns.contains("roomtype") || !columns.contains("roomprice")) {
+            throw new OurException("CSV header must include roomType and roomPrice");
+        }
+
+        return new ManifestReader() {
+            private long row = 1;
+
+            @Override
+            public Map<String, String> next() throws IOException {
+                List<String> record = csv.next();
+                if (record == null) {
+                    return null;
+                }
+                row++;
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                    fields.put(columns.get(i), record.get(i));
+                }
+                return fields;
+            }
+
+            @Override
+            public long row() {
+                return row;
+            }
+        };
+    }
+
+    private ManifestReader ndjsonManifest(BufferedReader in) {
+        return new ManifestReader() {
+            private long row;
+
+            @Override
+            public Map<String, String> next() throws IOException {
+                String line;
+                do {
+                    line = in.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                    row++;
+                } while (line.isBlank());
+
+                Map<String, String> fields = new HashMap<>();
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    // One bad line is a row error, not the end of the import
+                    fields.put(PARSE_ERROR, "Invalid JSON");
+                    return fields;
+                }
+                if (node != null && node.isObject()) {
+                    node.fields().forEachRemaining(field -> fields.put(field.getKey().toLowerCase(Locale.ROOT),
+                            field.getValue().isNull() ? null : field.getValue().asText()));
+                } else {
+                    fields.put(PARSE_ERROR, "Line is not a JSON object");
+                }
+                return fields;
+            }
+
+            @Override
+            public long row() {
+                return row;
+            }
+        };
+    }
+}
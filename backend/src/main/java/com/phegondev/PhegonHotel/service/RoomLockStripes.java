@@ -0,0 +1,49 @@
+package com.phegondev.PhegonHotel.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Fixed pool of locks keyed by room id, so booking requests for the same room
+ * are serialized while requests for different rooms mostly run in parallel.
+ * This only covers one instance; the room_nights unique key is the cross-instance guard.
+ */
+@Service
+public class RoomLockStripes {
+
+    private static final int STRIPES = 256;
+
+    private final Lock[] locks = new Lock[STRIPES];
+
+    public RoomLockStripes() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock lockFor(Long roomId) {
+        return locks[stripe(roomId)];
+    }
+
+    // Distinct locks for several rooms in stripe order; always acquire them in this order to avoid deadlocks
+    public List<Lock> locksFor(Collection<Long> roomIds) {
+        return roomIds.stream()
+                .map(RoomLockStripes::stripe)
+                .collect(Collectors.toCollection(TreeSet::new))
+                .stream()
+                .map(stripe -> locks[stripe])
+                .toList();
+    }
+
+    private static int stripe(Long roomId) {
+        int hash = Long.hashCode(roomId);
+        hash ^= (hash >>> 16);
+        return hash & (STRIPES - 1);
+    }
+}
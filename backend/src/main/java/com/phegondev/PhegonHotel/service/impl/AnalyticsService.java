@@ -0,0 +1,161 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.dto.OccupancyStatsDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.DailyRoomTypeStats;
+import com.phegondev.PhegonHotel.repo.DailyRoomTypeStatsRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.OccupancyRollups;
+import com.phegondev.PhegonHotel.service.interfac.IAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Occupancy and revenue reports answered from daily_room_type_stats, so a query reads
+ * at most (nights x room types) rollup rows instead of scanning bookings.
+ */
+@Service
+public class AnalyticsService implements IAnalyticsService {
+
+    private static final int MAX_RANGE_DAYS = 3660;
+
+    @Autowired
+    private DailyRoomTypeStatsRepository statsRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private OccupancyRollups occupancyRollups;
+
+    @Override
+    public Response getOccupancy(LocalDate fromDate, LocalDate toDate, String roomType, String groupBy) {
+        Response response = new Response();
+
+        try {
+            if (!toDate.isAfter(fromDate)) {
+                throw new IllegalArgumentException("toDate must come after fromDate");
+            }
+            if (ChronoUnit.DAYS.between(fromDate, toDate) > MAX_RANGE_DAYS) {
+                throw new IllegalArgumentException("Date range is limited to " + MAX_RANGE_DAYS + " days");
+            }
+            String grouping = groupBy == null ? "day" : groupBy.toLowerCase(Locale.ROOT);
+            if (!List.of("day", "month", "total").contains(grouping)) {
+                throw new IllegalArgumentException("groupBy must be day, month or total");
+            }
+
+            Map<String, Long> roomCounts = new HashMap<>();
+            for (Object[] row : roomRepository.countRoomsByType()) {
+                roomCounts.put((String) row[0], (Long) row[1]);
+            }
+
+            Map<String, OccupancyStatsDTO> stats = new LinkedHashMap<>();
+            for (DailyRoomTypeStats day : statsRepository.findForNights(fromDate, toDate)) {
+                if (roomType != null && !roomType.isBlank() && !day.getRoomType().equalsIgnoreCase(roomType)) {
+                    continue;
+                }
+                String period = periodOf(day.getStatDate(), grouping);
+                OccupancyStatsDTO dto = stats.computeIfAbsent(period + "|" + day.getRoomType(), key -> {
+                    OccupancyStatsDTO created = new OccupancyStatsDTO();
+                    created.setPeriod(period);
+                    created.setRoomType(day.getRoomType());
+                    created.setRevenue(BigDecimal.ZERO);
+                    created.setAvailableRoomNights(roomCounts.getOrDefault(day.getRoomType(), 0L)
+                            * nightsInPeriod(day.getStatDate(), grouping, fromDate, toDate));
+                    return created;
+                });
+                dto.setRoomNights(dto.getRoomNights() + day.getRoomNights());
+                dto.setGuests(dto.getGuests() + day.getGuests());
+                dto.setRevenue(dto.getRevenue().add(day.getRevenue()));
+            }
+
+            List<OccupancyStatsDTO> occupancyStats = new ArrayList<>(stats.values());
+            for (OccupancyStatsDTO dto : occupancyStats) {
+                if (dto.getAvailableRoomNights() > 0) {
+                    dto.setOccupancyRate(BigDecimal.valueOf(dto.getRoomNights())
+                            .divide(BigDecimal.valueOf(dto.getAvailableRoomNights()), 4, RoundingMode.HALF_UP).doubleValue());
+                }
+                if (dto.getRoomNights() > 0) {
+                    dto.setAverageDailyRate(dto.getRevenue().divide(BigDecimal.valueOf(dto.getRoomNights()), 2, RoundingMode.HALF_UP));
+                }
+            }
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setOccupancyStats(occupancyStats);
+
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error getting occupancy " + e.getMessage());
+        }
+        return response;
+    }
+
+    @Override
+    public Response rebuildRollups(LocalDate fromDate, LocalDate toDate) {
+        Response response = new Response();
+
+        try {
+            OccupancyRollups.RebuildResult result;
+            if (fromDate == null && toDate == null) {
+                result = occupancyRollups.rebuildAll();
+            } else {
+                if (fromDate == null || toDate == null || !toDate.isAfter(fromDate)) {
+                    throw new IllegalArgumentException("Provide both fromDate and toDate, with toDate after fromDate");
+                }
+                result = occupancyRollups.rebuild(fromDate, toDate);
+            }
+            if (result == null) {
+                response.setStatusCode(409);
+                response.setMessage("A rollup rebuild is already running");
+                return response;
+            }
+            response.setStatusCode(200);
+            response.setMessage("Rebuilt " + result.fromDate() + " to " + result.toDate() + ": " + result.chunks()
+                    + " chunks, " + result.rows() + " rows in " + result.millis() + " ms");
+
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error rebuilding rollups " + e.getMessage());
+        }
+        return response;
+    }
+
+    private static String periodOf(LocalDate night, String grouping) {
+        return switch (grouping) {
+            case "month" -> YearMonth.from(night).toString();
+            case "total" -> "total";
+            default -> night.toString();
+        };
+    }
+
+    // Nights of the period that fall inside [fromDate, toDate)
+    private static long nightsInPeriod(LocalDate night, String grouping, LocalDate fromDate, LocalDate toDate) {
+        return switch (grouping) {
+            case "month" -> {
+                LocalDate monthStart = night.withDayOfMonth(1);
+                LocalDate start = monthStart.isBefore(fromDate) ? fromDate : monthStart;
+                LocalDate monthEnd = monthStart.plusMonths(1);
+                LocalDate end = monthEnd.isAfter(toDate) ? toDate : monthEnd;
+                yield ChronoUnit.DAYS.between(start, end);
+            }
+            case "total" -> ChronoUnit.DAYS.between(fromDate, toDate);
+            default -> 1;
+        };
+    }
+}
@@ -1,6 +1,10 @@
 package com.phegondev.PhegonHotel.service.impl;
 
+import com.phegondev.PhegonHotel.config.CacheConfig;
 import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.dto.BulkBookingRequest;
+import com.phegondev.PhegonHotel.dto.BulkBookingResult;
+import com.phegondev.PhegonHotel.dto.DateSuggestionDTO;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.Booking;
 import com.phegondev.PhegonHotel.entity.Room;
@@ -9,18 +13,53 @@ import com.phegondev.PhegonHotel.exception.OurException;
 import com.phegondev.PhegonHotel.repo.BookingRepository;
 import com.phegondev.PhegonHotel.repo.RoomRepository;
 import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.event.DomainEvent;
+import com.phegondev.PhegonHotel.service.CatalogSnapshots;
+import com.phegondev.PhegonHotel.service.Outbox;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import com.phegondev.PhegonHotel.service.RoomLockStripes;
 import com.phegondev.PhegonHotel.service.interfac.IBookingService;
 import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import com.phegondev.PhegonHotel.utils.DateRange;
 import com.phegondev.PhegonHotel.utils.Utils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService implements IBookingService {
 
+    @PersistenceContext
+    private EntityManager entityManager;
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
@@ -29,29 +68,71 @@ public class BookingService implements IBookingService {
     private RoomRepository roomRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private RoomLockStripes roomLockStripes;
+    @Autowired
+    private Outbox outbox;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final int MAX_BULK_LINES = 500;
+    private static final int MAX_DATE_SUGGESTIONS = 5;
+    private static final String ROOM_NOT_AVAILABLE = "Room not Available for selected date range";
+    private static final String INSERT_BOOKING_SQL = "INSERT INTO bookings (check_in_date, check_out_date, num_of_adults, "
+            + "num_of_children, total_num_of_guest, booking_confirmation_code, user_id, room_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ROOM_NIGHT_SQL = "INSERT INTO room_nights (room_id, night, booking_id) VALUES (?, ?, ?)";
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ROOM_BY_ID, key = "#roomId")
     public Response saveBooking(Long roomId, Long userId, Booking bookingRequest) {
         Response response = new Response();
 
         try {
-            if (bookingRequest.getCheckOutDate().isBefore(bookingRequest.getCheckInDate())) {
-                throw new IllegalArgumentException("Check in date must come after check out date");
+            DateRange stay = DateRange.of(bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate());
+            if (stay.isEmpty()) {
+                throw new IllegalArgumentException("Check out date must come after check in date");
             }
-            Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
-            User user = userRepository.findById(userId).orElseThrow(() -> new OurException("User Not Found"));
-
-            List<Booking> existingBookings = room.getBookings();
-
-            if (!roomIsAvailable(bookingRequest, existingBookings)) {
-                throw new OurException("Room not Available for selected date range");
+            // Serialize admission per room so the availability check and the insert can't interleave
+            Lock roomLock = roomLockStripes.lockFor(roomId);
+            roomLock.lock();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
+                    User user = userRepository.findById(userId).orElseThrow(() -> new OurException("User Not Found"));
+
+                    if (bookingRepository.existsOverlappingBooking(roomId, stay.start(), stay.end())) {
+                        meterRegistry.counter("hotel.booking.conflicts", "reason", "overlap").increment();
+                        throw new OurException(ROOM_NOT_AVAILABLE);
+                    }
+
+                    bookingRequest.setRoom(room);
+                    bookingRequest.setUser(user);
+                    bookingRequest.setBookingConfirmationCode(Utils.generateRandomConfirmationCode(10));
+                    bookingRequest.reserveRoomNights();
+                    bookingRepository.saveAndFlush(bookingRequest);
+                    // Rollups and the confirmation email follow from the outbox after commit
+                    outbox.append(new DomainEvent.BookingCreated(bookingRequest.getId(), bookingRequest.getBookingConfirmationCode(),
+                            roomId, room.getRoomType(), room.getRoomPrice(), userId, user.getEmail(), user.getName(),
+                            stay.start(), stay.end(), bookingRequest.getTotalNumOfGuest()));
+                });
+                // Still under the lock, so a cancellation of earlier nights can't be released over this booking
+                availabilityIndex.markBooked(roomId, bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate());
+            } finally {
+                roomLock.unlock();
             }
-
-            bookingRequest.setRoom(room);
-            bookingRequest.setUser(user);
-            String bookingConfirmationCode = Utils.generateRandomConfirmationCode(10);
-            bookingRequest.setBookingConfirmationCode(bookingConfirmationCode);
-            bookingRepository.save(bookingRequest);
+            String bookingConfirmationCode = bookingRequest.getBookingConfirmationCode();
+            catalogSnapshots.bookingsChanged();
+            meterRegistry.counter("hotel.booking.created").increment();
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setBookingConfirmationCode(bookingConfirmationCode);
@@ -59,6 +140,16 @@ public class BookingService implements IBookingService {
         } catch (OurException e) {
             response.setStatusCode(404);
             response.setMessage(e.getMessage());
+            if (ROOM_NOT_AVAILABLE.equals(e.getMessage())) {
+                response.setDateSuggestions(dateSuggestionsFor(roomId, bookingRequest));
+            }
+
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent booking (possibly on another instance) already holds one of the room nights
+            meterRegistry.counter("hotel.booking.conflicts", "reason", "room_night").increment();
+            response.setStatusCode(404);
+            response.setMessage(ROOM_NOT_AVAILABLE);
+            response.setDateSuggestions(dateSuggestionsFor(roomId, bookingRequest));
 
         } catch (Exception e) {
             response.setStatusCode(500);
@@ -68,7 +159,284 @@ public class BookingService implements IBookingService {
         return response;
     }
 
+    // Answered from the availability index, so a rejected booking costs no extra queries
+    private List<DateSuggestionDTO> dateSuggestionsFor(Long roomId, Booking bookingRequest) {
+        return dateSuggestionsFor(roomId, bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate());
+    }
+
+    private List<DateSuggestionDTO> dateSuggestionsFor(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return availabilityIndex.findNearestFreeWindows(roomId, checkInDate, checkOutDate, MAX_DATE_SUGGESTIONS).stream()
+                .map(window -> {
+                    DateSuggestionDTO dto = new DateSuggestionDTO();
+                    dto.setRoomId(window.roomId());
+                    dto.setCheckInDate(window.checkInDate());
+                    dto.setCheckOutDate(window.checkOutDate());
+                    dto.setShiftDays(window.shiftDays());
+                    dto.setSameRoom(window.sameRoom());
+                    return dto;
+                })
+                .toList();
+    }
+
+    @Override
+    public Response suggestDates(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        Response response = new Response();
+
+        try {
+            DateRange stay = DateRange.of(checkInDate, checkOutDate);
+            if (stay.isEmpty()) {
+                throw new IllegalArgumentException("Check out date must come after check in date");
+            }
+            List<DateSuggestionDTO> suggestions = dateSuggestionsFor(roomId, checkInDate, checkOutDate);
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setDateSuggestions(suggestions);
+
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error suggesting dates: " + e.getMessage());
+
+        }
+        return response;
+    }
+
+    /**
+     * Books many (room, dates, guests) lines for one user. All lines are checked against existing
+     * bookings with one query and against each other, then inserted with JDBC batches, since the
+     * IDENTITY ids on bookings stop Hibernate from batching inserts.
+     */
     @Override
+    public Response saveBookings(Long userId, BulkBookingRequest bulkBookingRequest) {
+        Response response = new Response();
+
+        try {
+            List<BulkBookingRequest.Line> lines = bulkBookingRequest.getLines();
+            if (lines == null || lines.isEmpty()) {
+                throw new IllegalArgumentException("At least one booking line is required");
+            }
+            if (lines.size() > MAX_BULK_LINES) {
+                throw new IllegalArgumentException("At most " + MAX_BULK_LINES + " booking lines per request");
+            }
+            User user = userRepository.findById(userId).orElseThrow(() -> new OurException("User Not Found"));
+            boolean allOrNothing = bulkBookingRequest.getMode() != BulkBookingRequest.Mode.BEST_EFFORT;
+
+            List<BulkBookingResult> results = new ArrayList<>(lines.size());
+            DateRange[] stays = new DateRange[lines.size()];
+            Set<Long> roomIds = new LinkedHashSet<>();
+            for (int i = 0; i < lines.size(); i++) {
+                BulkBookingRequest.Line line = lines.get(i);
+                BulkBookingResult result = new BulkBookingResult();
+                result.setLine(i + 1);
+                result.setRoomId(line.getRoomId());
+                result.setError(validateLine(line));
+                if (result.getError() == null) {
+                    stays[i] = DateRange.of(line.getCheckInDate(), line.getCheckOutDate());
+                    roomIds.add(line.getRoomId());
+                }
+                results.add(result);
+            }
+
+            List<Integer> booked = List.of();
+            if (!roomIds.isEmpty() && !(allOrNothing && hasErrors(results))) {
+                // Lock every involved room (in stripe order) so no single booking can slip in between check and insert
+                List<Lock> locks = roomLockStripes.locksFor(roomIds);
+                locks.forEach(Lock::lock);
+                try {
+                    booked = transactionTemplate.execute(status -> {
+                        Map<Long, Room> rooms = checkBulkConflicts(lines, stays, results, roomIds);
+                        if (allOrNothing && hasErrors(results)) {
+                            return List.of();
+                        }
+                        List<Integer> accepted = new ArrayList<>();
+                        for (int i = 0; i < results.size(); i++) {
+                            if (results.get(i).getError() == null) {
+                                accepted.add(i);
+                            }
+                        }
+                        insertBulkBookings(userId, lines, stays, results, accepted);
+                        outbox.appendAll(accepted.stream()
+                                .map(i -> {
+                                    BulkBookingRequest.Line line = lines.get(i);
+                                    Room room = rooms.get(line.getRoomId());
+                                    return new DomainEvent.BookingCreated(results.get(i).getBookingId(),
+                                            results.get(i).getBookingConfirmationCode(), room.getId(), room.getRoomType(),
+                                            room.getRoomPrice(), userId, user.getEmail(), user.getName(), stays[i].start(),
+                                            stays[i].end(), line.getNumOfAdults() + line.getNumOfChildren());
+                                })
+                                .toList());
+                        return accepted;
+                    });
+                    // Still under the locks, so a cancellation of earlier nights can't be released over these bookings
+                    for (int i : booked) {
+                        availabilityIndex.markBooked(lines.get(i).getRoomId(), stays[i].start(), stays[i].end());
+                    }
+                } finally {
+                    for (int i = locks.size() - 1; i >= 0; i--) {
+                        locks.get(i).unlock();
+                    }
+                }
+            }
+
+            Cache roomCache = cacheManager.getCache(CacheConfig.ROOM_BY_ID);
+            if (roomCache != null) {
+                booked.forEach(i -> roomCache.evict(lines.get(i).getRoomId()));
+            }
+            if (!booked.isEmpty()) {
+                catalogSnapshots.bookingsChanged();
+            }
+            meterRegistry.counter("hotel.booking.created").increment(booked.size());
+
+            int failed = (int) results.stream().filter(result -> result.getError() != null).count();
+            response.setBulkBookingResults(results);
+            if (booked.isEmpty()) {
+                response.setStatusCode(400);
+                response.setMessage("No rooms were booked: " + failed + " of " + lines.size() + " lines failed");
+            } else {
+                response.setStatusCode(200);
+                response.setMessage(failed == 0 ? "successful" : "Booked " + booked.size() + " of " + lines.size() + " lines");
+            }
+
+        } catch (OurException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
+
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+
+        } catch (DataIntegrityViolationException e) {
+            // Another instance took one of the nights after our check; the whole batch was rolled back
+            meterRegistry.counter("hotel.booking.conflicts", "reason", "room_night").increment();
+            response.setStatusCode(404);
+            response.setMessage(ROOM_NOT_AVAILABLE + "; no rooms were booked, please retry");
+
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error Saving bookings: " + e.getMessage());
+
+        }
+        return response;
+    }
+
+    private static String validateLine(BulkBookingRequest.Line line) {
+        if (line.getRoomId() == null) {
+            return "roomId is required";
+        }
+        if (line.getCheckInDate() == null || line.getCheckOutDate() == null) {
+            return "Check in and check out dates are required";
+        }
+        if (!line.getCheckOutDate().isAfter(line.getCheckInDate())) {
+            return "Check out date must come after check in date";
+        }
+        if (line.getNumOfAdults() < 1) {
+            return "Number of adults must not be less that 1";
+        }
+        if (line.getNumOfChildren() < 0) {
+            return "Number of children must not be less that 0";
+        }
+        return null;
+    }
+
+    private static boolean hasErrors(List<BulkBookingResult> results) {
+        return results.stream().anyMatch(result -> result.getError() != null);
+    }
+
+    // One query for the existing stays of all rooms, then every line against those and the earlier lines.
+    // Returns the rooms by id.
+    private Map<Long, Room> checkBulkConflicts(List<BulkBookingRequest.Line> lines, DateRange[] stays,
+                                               List<BulkBookingResult> results, Set<Long> roomIds) {
+        Map<Long, Room> existingRooms = new HashMap<>();
+        roomRepository.findAllById(roomIds).forEach(room -> existingRooms.put(room.getId(), room));
+        LocalDate from = null;
+        LocalDate to = null;
+        for (DateRange stay : stays) {
+            if (stay != null) {
+                from = from == null || stay.start().isBefore(from) ? stay.start() : from;
+                to = to == null || stay.end().isAfter(to) ? stay.end() : to;
+            }
+        }
+
+        Map<Long, List<DateRange>> booked = new HashMap<>();
+        for (Object[] row : bookingRepository.findBookedRangesForRooms(roomIds, from, to)) {
+            booked.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(DateRange.of((LocalDate) row[1], (LocalDate) row[2]));
+        }
+
+        Map<Long, List<Integer>> acceptedByRoom = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            BulkBookingResult result = results.get(i);
+            if (result.getError() != null) {
+                continue;
+            }
+            Long roomId = lines.get(i).getRoomId();
+            DateRange stay = stays[i];
+            if (!existingRooms.containsKey(roomId)) {
+                result.setError("Room Not Found");
+            } else if (booked.getOrDefault(roomId, List.of()).stream().anyMatch(stay::overlaps)) {
+                meterRegistry.counter("hotel.booking.conflicts", "reason", "overlap").increment();
+                result.setError(ROOM_NOT_AVAILABLE);
+            } else {
+                List<Integer> earlier = acceptedByRoom.computeIfAbsent(roomId, id -> new ArrayList<>());
+                Integer clash = earlier.stream().filter(j -> stays[j].overlaps(stay)).findFirst().orElse(null);
+                if (clash != null) {
+                    result.setError("Overlaps line " + (clash + 1) + " of this request");
+                } else {
+                    earlier.add(i);
+                }
+            }
+        }
+        return existingRooms;
+    }
+
+    private void insertBulkBookings(Long userId, List<BulkBookingRequest.Line> lines, DateRange[] stays,
+                                    List<BulkBookingResult> results, List<Integer> accepted) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<String> codes = Utils.generateRandomConfirmationCodes(accepted.size(), 10);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_BOOKING_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int index = accepted.get(i);
+                        BulkBookingRequest.Line line = lines.get(index);
+                        ps.setDate(1, Date.valueOf(stays[index].start()));
+                        ps.setDate(2, Date.valueOf(stays[index].end()));
+                        ps.setInt(3, line.getNumOfAdults());
+                        ps.setInt(4, line.getNumOfChildren());
+                        ps.setInt(5, line.getNumOfAdults() + line.getNumOfChildren());
+                        ps.setString(6, codes.get(i));
+                        ps.setLong(7, userId);
+                        ps.setLong(8, line.getRoomId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return accepted.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> roomNights = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = accepted.get(i);
+            long bookingId = ((Number) keys.get(i).values().iterator().next()).longValue();
+            BulkBookingResult result = results.get(index);
+            result.setBookingId(bookingId);
+            result.setBookingConfirmationCode(codes.get(i));
+            for (LocalDate night = stays[index].start(); night.isBefore(stays[index].end()); night = night.plusDays(1)) {
+                roomNights.add(new Object[]{lines.get(index).getRoomId(), Date.valueOf(night), bookingId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROOM_NIGHT_SQL, roomNights);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Response findBookingByConfirmationCode(String confirmationCode) {
 
         Response response = new Response();
@@ -93,6 +461,7 @@ public class BookingService implements IBookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Response getAllBookings() {
 
         Response response = new Response();
@@ -117,48 +486,93 @@ public class BookingService implements IBookingService {
     }
 
     @Override
-    public Response cancelBooking(Long bookingId) {
-
+    @Transactional(readOnly = true)
+    public Response getAllBookings(String cursor, int pageSize) {
         Response response = new Response();
 
         try {
-            bookingRepository.findById(bookingId).orElseThrow(() -> new OurException("Booking Does Not Exist"));
-            bookingRepository.deleteById(bookingId);
+            Long lastId = Utils.decodeCursor(cursor);
+            List<Booking> bookingList = lastId == null
+                    ? bookingRepository.findAllByOrderByIdDesc(Limit.of(pageSize + 1))
+                    : bookingRepository.findByIdLessThanOrderByIdDesc(lastId, Limit.of(pageSize + 1));
+            boolean hasMore = bookingList.size() > pageSize;
+            if (hasMore) {
+                bookingList = bookingList.subList(0, pageSize);
+            }
+            List<BookingDTO> bookingDTOList = Utils.mapBookingListEntityToBookingListDTO(bookingList);
             response.setStatusCode(200);
             response.setMessage("successful");
+            response.setBookingList(bookingDTOList);
+            if (hasMore) {
+                response.setNextCursor(Utils.encodeCursor(bookingList.get(bookingList.size() - 1).getId()));
+            }
 
         } catch (OurException e) {
-            response.setStatusCode(404);
+            response.setStatusCode(400);
             response.setMessage(e.getMessage());
-
         } catch (Exception e) {
             response.setStatusCode(500);
-            response.setMessage("Error Cancelling a booking: " + e.getMessage());
-
+            response.setMessage("Error Getting all bookings: " + e.getMessage());
         }
         return response;
     }
 
-    private boolean roomIsAvailable(Booking bookingRequest, List<Booking> existingBookings) {
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllBookings(Consumer<BookingDTO> sink) {
+        try (Stream<Booking> bookings = bookingRepository.streamAllOrderByIdDesc()) {
+            bookings.forEach(booking -> {
+                sink.accept(Utils.mapBookingEntityToBookingDTO(booking));
+                // Keep the persistence context from growing with the table
+                entityManager.detach(booking);
+            });
+        }
+    }
+
+    @Override
+    public Response cancelBooking(Long bookingId) {
 
-        return existingBookings.stream()
-                .noneMatch(existingBooking ->
-                        bookingRequest.getCheckInDate().equals(existingBooking.getCheckInDate())
-                                || bookingRequest.getCheckOutDate().isBefore(existingBooking.getCheckOutDate())
-                                || (bookingRequest.getCheckInDate().isAfter(existingBooking.getCheckInDate())
-                                && bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckOutDate()))
-                                || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
+        Response response = new Response();
 
-                                && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckOutDate()))
-                                || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
+        try {
+            Long roomId = bookingRepository.findRoomIdById(bookingId).orElseThrow(() -> new OurException("Booking Does Not Exist"));
+            // Delete and release under the room lock, so the release can't clear a booking admitted right after the delete
+            Lock roomLock = roomLockStripes.lockFor(roomId);
+            roomLock.lock();
+            try {
+                Booking booking = transactionTemplate.execute(status -> {
+                    Booking existing = bookingRepository.findById(bookingId).orElseThrow(() -> new OurException("Booking Does Not Exist"));
+                    Room room = existing.getRoom();
+                    User user = existing.getUser();
+                    bookingRepository.delete(existing);
+                    outbox.append(new DomainEvent.BookingCancelled(existing.getId(), existing.getBookingConfirmationCode(),
+                            roomId, room.getRoomType(), room.getRoomPrice(), user.getId(), user.getEmail(), user.getName(),
+                            existing.getCheckInDate(), existing.getCheckOutDate(), existing.getTotalNumOfGuest()));
+                    return existing;
+                });
+                availabilityIndex.markReleased(roomId, booking.getCheckInDate(), booking.getCheckOutDate());
+            } finally {
+                roomLock.unlock();
+            }
+            catalogSnapshots.bookingsChanged();
+            // Room details embed their bookings
+            Cache roomCache = cacheManager.getCache(CacheConfig.ROOM_BY_ID);
+            if (roomCache != null) {
+                roomCache.evict(roomId);
+            }
+            meterRegistry.counter("hotel.booking.cancelled").increment();
+            response.setStatusCode(200);
+            response.setMessage("successful");
 
-                                && bookingRequest.getCheckOutDate().isAfter(existingBooking.getCheckOutDate()))
+        } catch (OurException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
 
-                                || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-                                && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckInDate()))
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error Cancelling a booking: " + e.getMessage());
 
-                                || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-                                && bookingRequest.getCheckOutDate().equals(bookingRequest.getCheckInDate()))
-                );
+        }
+        return response;
     }
 }
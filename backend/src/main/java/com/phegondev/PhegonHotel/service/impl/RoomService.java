@@ -1,52 +1,94 @@
 package com.phegondev.PhegonHotel.service.impl;
 
+import com.phegondev.PhegonHotel.config.CacheConfig;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.RoomSearchCriteria;
 import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.event.DomainEvent;
 import com.phegondev.PhegonHotel.exception.OurException;
 import com.phegondev.PhegonHotel.repo.BookingRepository;
 import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.RoomSpecifications;
+import com.phegondev.PhegonHotel.service.CatalogSnapshots;
 import com.phegondev.PhegonHotel.service.LocalFileStorageService;
+import com.phegondev.PhegonHotel.service.Outbox;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
 import com.phegondev.PhegonHotel.service.interfac.IRoomService;
 import com.phegondev.PhegonHotel.utils.Utils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class RoomService implements IRoomService {
 
 
+    @PersistenceContext
+    private EntityManager entityManager;
     @Autowired
     private RoomRepository roomRepository;
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
     private LocalFileStorageService fileStorageService;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private Outbox outbox;
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
 
     @Override
-    public Response addNewRoom(MultipartFile photo, String roomType, BigDecimal roomPrice, String description) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOMS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ROOM_TYPES, allEntries = true)
+    })
+    public Response addNewRoom(MultipartFile photo, String roomType, BigDecimal roomPrice, String description, Integer capacity) {
         Response response = new Response();
+        String storedImageUrl = null;
 
         try {
-            String imageUrl = fileStorageService.saveImageToLocal(photo);
+            String imageUrl = fileStorageService.storeImageToLocal(photo);
+            storedImageUrl = imageUrl;
             Room room = new Room();
             room.setRoomPhotoUrl(imageUrl);
             room.setRoomType(roomType);
             room.setRoomPrice(roomPrice);
             room.setRoomDescription(description);
-            Room savedRoom = roomRepository.save(room);
+            room.setCapacity(capacity);
+            Room savedRoom = transactionTemplate.execute(status -> {
+                retainPhoto(imageUrl);
+                return roomRepository.save(room);
+            });
+            availabilityIndex.putRoom(savedRoom);
+            catalogSnapshots.roomsChanged();
             RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTO(savedRoom);
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setRoom(roomDTO);
 
         } catch (Exception e) {
+            fileStorageService.discardIfUnreferenced(storedImageUrl);
             response.setStatusCode(500);
             response.setMessage("Error saving a room " + e.getMessage());
         }
@@ -54,11 +96,13 @@ public class RoomService implements IRoomService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.ROOM_TYPES, key = "'all'")
     public List<String> getAllRoomTypes() {
         return roomRepository.findDistinctRoomTypes();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.ROOMS, key = "'all'", unless = "#result.statusCode != 200")
     public Response getAllRooms() {
         Response response = new Response();
 
@@ -77,19 +121,77 @@ public class RoomService implements IRoomService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.ROOMS, key = "'page:' + #cursor + ':' + #pageSize", unless = "#result.statusCode != 200")
+    public Response getAllRooms(String cursor, int pageSize) {
+        Response response = new Response();
+
+        try {
+            Long lastId = Utils.decodeCursor(cursor);
+            List<Room> roomList = lastId == null
+                    ? roomRepository.findAllByOrderByIdDesc(Limit.of(pageSize + 1))
+                    : roomRepository.findByIdLessThanOrderByIdDesc(lastId, Limit.of(pageSize + 1));
+            boolean hasMore = roomList.size() > pageSize;
+            if (hasMore) {
+                roomList = roomList.subList(0, pageSize);
+            }
+            List<RoomDTO> roomDTOList = Utils.mapRoomListEntityToRoomListDTO(roomList);
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setRoomList(roomDTOList);
+            if (hasMore) {
+                response.setNextCursor(Utils.encodeCursor(roomList.get(roomList.size() - 1).getId()));
+            }
+
+        } catch (OurException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error getting rooms " + e.getMessage());
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllRooms(Consumer<RoomDTO> sink) {
+        try (Stream<Room> rooms = roomRepository.streamAllOrderByIdDesc()) {
+            rooms.forEach(room -> {
+                sink.accept(Utils.mapRoomEntityToRoomDTO(room));
+                // Keep the persistence context from growing with the table
+                entityManager.detach(room);
+            });
+        }
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOMS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ROOM_TYPES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ROOM_BY_ID, key = "#roomId")
+    })
     public Response deleteRoom(Long roomId) {
         Response response = new Response();
 
         try {
             Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
-            
-            // ลบรูปภาพก่อนลบข้อมูลห้อง
+
+            // Bookings are removed with the room; the event lists their stays so the rollups can take them out
+            transactionTemplate.executeWithoutResult(status -> {
+                List<DomainEvent.BookedStay> stays = bookingRepository.findBookedRangesByRoomId(roomId).stream()
+                        .map(row -> new DomainEvent.BookedStay((LocalDate) row[1], (LocalDate) row[2], (Integer) row[3]))
+                        .toList();
+                roomRepository.deleteById(roomId);
+                outbox.append(new DomainEvent.RoomDeleted(roomId, room.getRoomType(), room.getRoomPrice(), stays));
+            });
+
+            // The photo is released only once the room row is gone, so a failed delete keeps it
             String imageUrl = room.getRoomPhotoUrl();
             if (imageUrl != null && !imageUrl.isEmpty()) {
                 fileStorageService.deleteImage(imageUrl);
             }
-            
-            roomRepository.deleteById(roomId);
+            availabilityIndex.removeRoom(roomId);
+            catalogSnapshots.roomsChanged();
             response.setStatusCode(200);
             response.setMessage("successful");
 
@@ -104,8 +206,14 @@ public class RoomService implements IRoomService {
     }
 
     @Override
-    public Response updateRoom(Long roomId, String description, String roomType, BigDecimal roomPrice, MultipartFile photo) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOMS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ROOM_TYPES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.ROOM_BY_ID, key = "#roomId")
+    })
+    public Response updateRoom(Long roomId, String description, String roomType, BigDecimal roomPrice, Integer capacity, MultipartFile photo) {
         Response response = new Response();
+        String storedImageUrl = null;
 
         try {
             Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
@@ -113,23 +221,36 @@ public class RoomService implements IRoomService {
             // เก็บ URL รูปภาพเก่าเพื่อลบภายหลัง
             String oldImageUrl = room.getRoomPhotoUrl();
             
-            String imageUrl = null;
             if (photo != null && !photo.isEmpty()) {
                 // บันทึกรูปภาพใหม่
-                imageUrl = fileStorageService.saveImageToLocal(photo);
-                room.setRoomPhotoUrl(imageUrl);
-                
-                // ลบรูปภาพเก่าหลังจากบันทึกรูปใหม่เรียบร้อยแล้ว
-                if (oldImageUrl != null && !oldImageUrl.isEmpty()) {
-                    fileStorageService.deleteImage(oldImageUrl);
-                }
+                storedImageUrl = fileStorageService.storeImageToLocal(photo);
+                room.setRoomPhotoUrl(storedImageUrl);
             }
+            String imageUrl = storedImageUrl;
             
+            String previousRoomType = room.getRoomType();
+            BigDecimal previousRoomPrice = room.getRoomPrice();
             if (roomType != null) room.setRoomType(roomType);
             if (roomPrice != null) room.setRoomPrice(roomPrice);
             if (description != null) room.setRoomDescription(description);
+            if (capacity != null) room.setCapacity(capacity);
 
-            Room updatedRoom = roomRepository.save(room);
+            Room updatedRoom = transactionTemplate.execute(status -> {
+                if (imageUrl != null) {
+                    retainPhoto(imageUrl);
+                }
+                Room saved = roomRepository.save(room);
+                outbox.append(new DomainEvent.RoomUpdated(roomId, saved.getRoomType(), saved.getRoomPrice(), saved.getCapacity(),
+                        previousRoomType, previousRoomPrice));
+                return saved;
+            });
+
+            // ลบรูปภาพเก่าหลังจากบันทึกรูปใหม่เรียบร้อยแล้ว
+            if (imageUrl != null && oldImageUrl != null && !oldImageUrl.isEmpty()) {
+                fileStorageService.deleteImage(oldImageUrl);
+            }
+            availabilityIndex.putRoom(updatedRoom);
+            catalogSnapshots.roomsChanged();
             RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTO(updatedRoom);
 
             response.setStatusCode(200);
@@ -137,21 +258,31 @@ public class RoomService implements IRoomService {
             response.setRoom(roomDTO);
 
         } catch (OurException e) {
+            fileStorageService.discardIfUnreferenced(storedImageUrl);
             response.setStatusCode(404);
             response.setMessage(e.getMessage());
         } catch (Exception e) {
+            fileStorageService.discardIfUnreferenced(storedImageUrl);
             response.setStatusCode(500);
             response.setMessage("Error updating room: " + e.getMessage());
         }
         return response;
     }
 
+    // Runs inside the transaction that saves the room, so the photo's reference count commits or rolls back with it
+    private void retainPhoto(String imageUrl) {
+        if (!fileStorageService.retainImage(imageUrl)) {
+            throw new IllegalStateException("Photo " + imageUrl + " was removed while the room was saved, please upload it again");
+        }
+    }
+
     @Override
+    @Cacheable(cacheNames = CacheConfig.ROOM_BY_ID, key = "#roomId", unless = "#result.statusCode != 200")
     public Response getRoomById(Long roomId) {
         Response response = new Response();
 
         try {
-            Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
+            Room room = roomRepository.findWithBookingsById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
             RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTOPlusBookings(room);
             response.setStatusCode(200);
             response.setMessage("successful");
@@ -168,11 +299,86 @@ public class RoomService implements IRoomService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Response searchRooms(RoomSearchCriteria criteria) {
+        Response response = new Response();
+
+        try {
+            if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null
+                    && criteria.getMinPrice().compareTo(criteria.getMaxPrice()) > 0) {
+                throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+            }
+            if (criteria.getGuests() != null && criteria.getGuests() <= 0) {
+                throw new IllegalArgumentException("guests must be positive");
+            }
+            if ((criteria.getCheckInDate() == null) != (criteria.getCheckOutDate() == null)) {
+                throw new IllegalArgumentException("Provide both checkInDate and checkOutDate, or neither");
+            }
+            if (criteria.getCheckInDate() != null && !criteria.getCheckOutDate().isAfter(criteria.getCheckInDate())) {
+                throw new IllegalArgumentException("Check out date must come after check in date");
+            }
+            String sortOrder = criteria.getSort() == null ? "price_asc" : criteria.getSort().toLowerCase(Locale.ROOT);
+            if (!sortOrder.equals("price_asc") && !sortOrder.equals("price_desc")) {
+                throw new IllegalArgumentException("sort must be price_asc or price_desc");
+            }
+            boolean descending = sortOrder.equals("price_desc");
+            int pageSize = Utils.clampPageSize(criteria.getSize());
+
+            Specification<Room> spec = Specification.where(RoomSpecifications.hasPrice())
+                    .and(RoomSpecifications.roomTypeIn(criteria.getRoomType()))
+                    .and(RoomSpecifications.priceAtLeast(criteria.getMinPrice()))
+                    .and(RoomSpecifications.priceAtMost(criteria.getMaxPrice()))
+                    .and(RoomSpecifications.fitsGuests(criteria.getGuests()));
+            if (criteria.getCheckInDate() != null) {
+                // Checked in the same query, so paging never has to ship a list of booked room ids to the database
+                spec = spec.and(RoomSpecifications.freeBetween(criteria.getCheckInDate(), criteria.getCheckOutDate()));
+            }
+            Utils.PriceCursor after = Utils.decodePriceCursor(criteria.getCursor());
+            if (after != null) {
+                spec = spec.and(RoomSpecifications.after(after.roomPrice(), after.id(), descending));
+            }
+
+            Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort sort = Sort.by(direction, "roomPrice").and(Sort.by(direction, "id"));
+            List<Room> roomList = roomRepository.findBy(spec, query -> query.sortBy(sort).limit(pageSize + 1).all());
+            boolean hasMore = roomList.size() > pageSize;
+            if (hasMore) {
+                roomList = roomList.subList(0, pageSize);
+            }
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setRoomList(Utils.mapRoomListEntityToRoomListDTO(roomList));
+            if (hasMore) {
+                Room last = roomList.get(roomList.size() - 1);
+                response.setNextCursor(Utils.encodePriceCursor(last.getRoomPrice(), last.getId()));
+            }
+
+        } catch (OurException | IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error searching rooms " + e.getMessage());
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Response getAvailableRoomsByDataAndType(LocalDate checkInDate, LocalDate checkOutDate, String roomType) {
         Response response = new Response();
 
         try {
-            List<Room> availableRooms = roomRepository.findAvailableRoomsByDatesAndTypes(checkInDate, checkOutDate, roomType);
+            // Answer from the in-memory index; fall back to SQL when the dates are outside its horizon
+            List<Long> availableRoomIds = availabilityIndex.findAvailableRoomIds(checkInDate, checkOutDate, roomType);
+            List<Room> availableRooms;
+            if (availableRoomIds == null) {
+                availableRooms = roomRepository.findAvailableRoomsByDatesAndTypes(checkInDate, checkOutDate, roomType);
+            } else if (availableRoomIds.isEmpty()) {
+                availableRooms = List.of();
+            } else {
+                availableRooms = roomRepository.findAllById(availableRoomIds);
+            }
             List<RoomDTO> roomDTOList = Utils.mapRoomListEntityToRoomListDTO(availableRooms);
             response.setStatusCode(200);
             response.setMessage("successful");
@@ -186,6 +392,7 @@ public class RoomService implements IRoomService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Response getAllAvailableRooms() {
         Response response = new Response();
 
@@ -1,32 +1,67 @@
 package com.phegondev.PhegonHotel.service.impl;
 
+import com.phegondev.PhegonHotel.config.CacheConfig;
 import com.phegondev.PhegonHotel.dto.LoginRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.dto.UserDTO;
+import com.phegondev.PhegonHotel.entity.Booking;
 import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.event.DomainEvent;
 import com.phegondev.PhegonHotel.exception.OurException;
+import com.phegondev.PhegonHotel.exception.ServiceBusyException;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
 import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.security.AuthCache;
+import com.phegondev.PhegonHotel.security.BoundedPasswordEncoder;
+import com.phegondev.PhegonHotel.service.CatalogSnapshots;
+import com.phegondev.PhegonHotel.service.Outbox;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import com.phegondev.PhegonHotel.service.RoomLockStripes;
 import com.phegondev.PhegonHotel.service.interfac.IUserService;
 import com.phegondev.PhegonHotel.utils.JWTUtils;
 import com.phegondev.PhegonHotel.utils.Utils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserService implements IUserService {
+    @PersistenceContext
+    private EntityManager entityManager;
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private BoundedPasswordEncoder passwordEncoder;
     @Autowired
     private JWTUtils jwtUtils;
     @Autowired
     private AuthenticationManager authenticationManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private RoomLockStripes roomLockStripes;
+    @Autowired
+    private Outbox outbox;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AuthCache authCache;
+    @Autowired
+    private CatalogSnapshots catalogSnapshots;
 
 
     @Override
@@ -47,6 +82,10 @@ public class UserService implements IUserService {
         } catch (OurException e) {
             response.setStatusCode(400);
             response.setMessage(e.getMessage());
+        } catch (ServiceBusyException e) {
+            response.setStatusCode(503);
+            response.setMessage(e.getMessage());
+            response.setRetryAfterSeconds(e.getRetryAfterSeconds());
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error Occurred During USer Registration " + e.getMessage());
@@ -63,6 +102,11 @@ public class UserService implements IUserService {
         try {
             authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
             var user = userRepository.findByEmail(loginRequest.getEmail()).orElseThrow(() -> new OurException("user Not found"));
+            // Re-hash with the configured bcrypt-strength; skipped while the hashing pool is busy
+            passwordEncoder.tryUpgrade(user.getPassword(), loginRequest.getPassword()).ifPresent(hash -> {
+                user.setPassword(hash);
+                userRepository.save(user);
+            });
 
             var token = jwtUtils.generateToken(user);
             response.setStatusCode(200);
@@ -75,6 +119,11 @@ public class UserService implements IUserService {
             response.setStatusCode(404);
             response.setMessage(e.getMessage());
 
+        } catch (ServiceBusyException e) {
+            response.setStatusCode(503);
+            response.setMessage(e.getMessage());
+            response.setRetryAfterSeconds(e.getRetryAfterSeconds());
+
         } catch (Exception e) {
 
             response.setStatusCode(500);
@@ -84,6 +133,7 @@ public class UserService implements IUserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Response getAllUsers() {
 
         Response response = new Response();
@@ -102,6 +152,51 @@ public class UserService implements IUserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Response getAllUsers(String cursor, int pageSize) {
+        Response response = new Response();
+
+        try {
+            Long lastId = Utils.decodeCursor(cursor);
+            List<User> userList = lastId == null
+                    ? userRepository.findAllByOrderByIdDesc(Limit.of(pageSize + 1))
+                    : userRepository.findByIdLessThanOrderByIdDesc(lastId, Limit.of(pageSize + 1));
+            boolean hasMore = userList.size() > pageSize;
+            if (hasMore) {
+                userList = userList.subList(0, pageSize);
+            }
+            List<UserDTO> userDTOList = Utils.mapUserListEntityToUserListDTO(userList);
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setUserList(userDTOList);
+            if (hasMore) {
+                response.setNextCursor(Utils.encodeCursor(userList.get(userList.size() - 1).getId()));
+            }
+
+        } catch (OurException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error getting all users " + e.getMessage());
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDTO> sink) {
+        try (Stream<User> users = userRepository.streamAllOrderByIdDesc()) {
+            users.forEach(user -> {
+                sink.accept(Utils.mapUserEntityToUserDTO(user));
+                // Keep the persistence context from growing with the table
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Response getUserBookingHistory(String userId) {
         Response response = new Response();
 
@@ -109,7 +204,9 @@ public class UserService implements IUserService {
             User user = userRepository.findById(Long.valueOf(userId))
                 .orElseThrow(() -> new OurException("User Not Found"));
 
-            UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(user);
+            // Bookings and their rooms in one query instead of one lazy load per booking
+            List<Booking> bookings = bookingRepository.findByUserIdWithRoom(user.getId());
+            UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(user, bookings);
             
             response.setStatusCode(200);
             response.setMessage("successful");
@@ -126,14 +223,44 @@ public class UserService implements IUserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ROOM_BY_ID, allEntries = true)
     public Response deleteUser(String userId) {
         Response response = new Response();
 
         try {
-            userRepository.findById(Long.valueOf(userId))
+            User user = userRepository.findById(Long.valueOf(userId))
                 .orElseThrow(() -> new OurException("User Not Found"));
 
-            userRepository.deleteById(Long.valueOf(userId));
+            // Bookings are removed with the user; each leaves a cancellation event, so the rollups take it out in
+            // order with the room's other events and the guest is told. The delete and the index releases happen
+            // under the rooms' locks, so a release can't clear a booking admitted right after the delete
+            List<Lock> roomLocks = roomLockStripes.locksFor(bookingRepository.findRoomIdsByUserId(user.getId()));
+            roomLocks.forEach(Lock::lock);
+            List<Booking> bookings;
+            try {
+                bookings = transactionTemplate.execute(status -> {
+                    List<Booking> userBookings = bookingRepository.findByUserIdWithRoom(user.getId());
+                    userRepository.deleteById(user.getId());
+                    outbox.appendAll(userBookings.stream()
+                        .map(booking -> new DomainEvent.BookingCancelled(booking.getId(), booking.getBookingConfirmationCode(),
+                            booking.getRoom().getId(), booking.getRoom().getRoomType(), booking.getRoom().getRoomPrice(),
+                            user.getId(), user.getEmail(), user.getName(),
+                            booking.getCheckInDate(), booking.getCheckOutDate(), booking.getTotalNumOfGuest()))
+                        .toList());
+                    return userBookings;
+                });
+                for (Booking booking : bookings) {
+                    availabilityIndex.markReleased(booking.getRoom().getId(), booking.getCheckInDate(), booking.getCheckOutDate());
+                }
+            } finally {
+                for (int i = roomLocks.size() - 1; i >= 0; i--) {
+                    roomLocks.get(i).unlock();
+                }
+            }
+            if (!bookings.isEmpty()) {
+                catalogSnapshots.bookingsChanged();
+            }
+            authCache.evictPrincipal(user.getEmail());
             
             response.setStatusCode(200);
             response.setMessage("successful");
@@ -149,6 +276,7 @@ public class UserService implements IUserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Response getUserById(String userId) {
 
         Response response = new Response();
@@ -173,6 +301,7 @@ public class UserService implements IUserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Response getMyInfo(String email) {
 
         Response response = new Response();
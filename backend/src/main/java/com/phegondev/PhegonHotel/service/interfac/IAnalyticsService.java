@@ -0,0 +1,12 @@
+package com.phegondev.PhegonHotel.service.interfac;
+
+import com.phegondev.PhegonHotel.dto.Response;
+
+import java.time.LocalDate;
+
+public interface IAnalyticsService {
+
+    Response getOccupancy(LocalDate fromDate, LocalDate toDate, String roomType, String groupBy);
+
+    Response rebuildRollups(LocalDate fromDate, LocalDate toDate);
+}
@@ -1,16 +1,29 @@
 package com.phegondev.PhegonHotel.service.interfac;
 
+import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.dto.BulkBookingRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.Booking;
 
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
 public interface IBookingService {
 
     Response saveBooking(Long roomId, Long userId, Booking bookingRequest);
 
+    Response saveBookings(Long userId, BulkBookingRequest bulkBookingRequest);
+
+    Response suggestDates(Long roomId, LocalDate checkInDate, LocalDate checkOutDate);
+
     Response findBookingByConfirmationCode(String confirmationCode);
 
     Response getAllBookings();
 
+    Response getAllBookings(String cursor, int pageSize);
+
+    void streamAllBookings(Consumer<BookingDTO> sink);
+
     Response cancelBooking(Long bookingId);
 
 }
@@ -1,26 +1,35 @@
 package com.phegondev.PhegonHotel.service.interfac;
 
 import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.RoomSearchCriteria;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IRoomService {
 
-    Response addNewRoom(MultipartFile photo, String roomType, BigDecimal roomPrice, String description);
+    Response addNewRoom(MultipartFile photo, String roomType, BigDecimal roomPrice, String description, Integer capacity);
 
     List<String> getAllRoomTypes();
 
     Response getAllRooms();
 
+    Response getAllRooms(String cursor, int pageSize);
+
+    void streamAllRooms(Consumer<RoomDTO> sink);
+
     Response deleteRoom(Long roomId);
 
-    Response updateRoom(Long roomId, String description, String roomType, BigDecimal roomPrice, MultipartFile photo);
+    Response updateRoom(Long roomId, String description, String roomType, BigDecimal roomPrice, Integer capacity, MultipartFile photo);
 
     Response getRoomById(Long roomId);
 
+    Response searchRooms(RoomSearchCriteria criteria);
+
     Response getAvailableRoomsByDataAndType(LocalDate checkInDate, LocalDate checkOutDate, String roomType);
 
     Response getAllAvailableRooms();
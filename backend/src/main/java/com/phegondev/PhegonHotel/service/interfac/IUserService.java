@@ -2,8 +2,11 @@ package com.phegondev.PhegonHotel.service.interfac;
 
 import com.phegondev.PhegonHotel.dto.LoginRequest;
 import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.dto.UserDTO;
 import com.phegondev.PhegonHotel.entity.User;
 
+import java.util.function.Consumer;
+
 public interface IUserService {
     Response register(User user);
 
@@ -11,6 +14,10 @@ public interface IUserService {
 
     Response getAllUsers();
 
+    Response getAllUsers(String cursor, int pageSize);
+
+    void streamAllUsers(Consumer<UserDTO> sink);
+
     Response getUserBookingHistory(String userId);
 
     Response deleteUser(String userId);
@@ -0,0 +1,46 @@
+package com.phegondev.PhegonHotel.utils;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Half-open range of nights {@code [start, end)}: a guest checking out on a day
+ * does not block another guest checking in that same day.
+ * This is the single overlap rule used for bookings; the repository queries mirror it.
+ */
+public record DateRange(LocalDate start, LocalDate end) {
+
+    public DateRange {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Check in and check out dates are required");
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Check out date must not be before check in date");
+        }
+    }
+
+    public static DateRange of(LocalDate start, LocalDate end) {
+        return new DateRange(start, end);
+    }
+
+    public boolean overlaps(DateRange other) {
+        return overlaps(other.start, other.end);
+    }
+
+    // An empty range holds no nights, so it overlaps nothing, even when it lies inside the other range
+    public boolean overlaps(LocalDate otherStart, LocalDate otherEnd) {
+        return !isEmpty() && otherStart.isBefore(otherEnd) && start.isBefore(otherEnd) && otherStart.isBefore(end);
+    }
+
+    public boolean contains(LocalDate night) {
+        return !night.isBefore(start) && night.isBefore(end);
+    }
+
+    public boolean isEmpty() {
+        return start.equals(end);
+    }
+
+    public long nights() {
+        return ChronoUnit.DAYS.between(start, end);
+    }
+}
@@ -0,0 +1,199 @@
+package com.phegondev.PhegonHotel.utils;
+
+/**
+ * Fixed-size bitmap with one bit per day, packed into {@code long} words.
+ * Ranges are half-open: {@code [from, to)}. Indexes outside the bitmap are clipped.
+ * Not thread-safe; callers guard access.
+ */
+public class DayBitmap {
+
+    private final int size;
+    private final long[] words;
+
+    public DayBitmap(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void set(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, size);
+        if (from >= to) {
+            return;
+        }
+        int startWord = from >>> 6;
+        int endWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (startWord == endWord) {
+            words[startWord] |= firstMask & lastMask;
+            return;
+        }
+        words[startWord] |= firstMask;
+        for (int i = startWord + 1; i < endWord; i++) {
+            words[i] = -1L;
+        }
+        words[endWord] |= lastMask;
+    }
+
+    public void clear(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, size);
+        if (from >= to) {
+            return;
+        }
+        int startWord = from >>> 6;
+        int endWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (startWord == endWord) {
+            words[startWord] &= ~(firstMask & lastMask);
+            return;
+        }
+        words[startWord] &= ~firstMask;
+        for (int i = startWord + 1; i < endWord; i++) {
+            words[i] = 0L;
+        }
+        words[endWord] &= ~lastMask;
+    }
+
+    /**
+     * Returns true when no day in {@code [from, to)} is set.
+     */
+    public boolean isClear(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, size);
+        if (from >= to) {
+            return true;
+        }
+        int startWord = from >>> 6;
+        int endWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (startWord == endWord) {
+            return (words[startWord] & firstMask & lastMask) == 0;
+        }
+        if ((words[startWord] & firstMask) != 0) {
+            return false;
+        }
+        for (int i = startWord + 1; i < endWord; i++) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        return (words[endWord] & lastMask) == 0;
+    }
+
+    // Index of the first set day at or after from, or size() when there is none
+    public int nextSetBit(int from) {
+        from = Math.max(from, 0);
+        if (from >= size) {
+            return size;
+        }
+        int wordIndex = from >>> 6;
+        long word = words[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min((wordIndex << 6) + Long.numberOfTrailingZeros(word), size);
+            }
+            if (++wordIndex == words.length) {
+                return size;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    // Index of the first clear day at or after from, or size() when there is none
+    public int nextClearBit(int from) {
+        from = Math.max(from, 0);
+        if (from >= size) {
+            return size;
+        }
+        int wordIndex = from >>> 6;
+        long word = ~words[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min((wordIndex << 6) + Long.numberOfTrailingZeros(word), size);
+            }
+            if (++wordIndex == words.length) {
+                return size;
+            }
+            word = ~words[wordIndex];
+        }
+    }
+
+    // Index of the last set day at or before from, or -1 when there is none
+    public int previousSetBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        from = Math.min(from, size - 1);
+        int wordIndex = from >>> 6;
+        long word = words[wordIndex] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (wordIndex-- == 0) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    // Index of the last clear day at or before from, or -1 when there is none
+    public int previousClearBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        from = Math.min(from, size - 1);
+        int wordIndex = from >>> 6;
+        long word = ~words[wordIndex] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (wordIndex-- == 0) {
+                return -1;
+            }
+            word = ~words[wordIndex];
+        }
+    }
+
+    /**
+     * Returns the smallest start at or after {@code from} such that {@code [start, start + length)}
+     * is clear and inside the bitmap, or -1. Skips whole booked stretches a word at a time.
+     */
+    public int nextClearRun(int from, int length) {
+        int start = Math.max(from, 0);
+        while (start + length <= size) {
+            int set = nextSetBit(start);
+            if (set >= start + length) {
+                return start;
+            }
+            start = nextClearBit(set + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the largest start at or before {@code from} such that {@code [start, start + length)}
+     * is clear and inside the bitmap, or -1. Skips whole booked stretches a word at a time.
+     */
+    public int previousClearRun(int from, int length) {
+        int start = Math.min(from, size - length);
+        while (start >= 0) {
+            int set = previousSetBit(start + length - 1);
+            if (set < start) {
+                return start;
+            }
+            // The run has to end before the booked stretch that contains this day
+            start = previousClearBit(set) - length + 1;
+        }
+        return -1;
+    }
+}
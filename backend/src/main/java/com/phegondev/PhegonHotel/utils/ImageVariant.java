@@ -0,0 +1,39 @@
+package com.phegondev.PhegonHotel.utils;
+
+import java.util.Locale;
+
+// Fixed-width JPEG derivatives generated for every uploaded room photo
+public enum ImageVariant {
+
+    THUMBNAIL(160),
+    CARD(480),
+    FULL(1280);
+
+    private final int width;
+
+    ImageVariant(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    // Name used in URLs (?size=card) and in RoomDTO.roomPhotoUrls
+    public String paramName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // Returns null for unknown names so callers can fall back to the original
+    public static ImageVariant fromParam(String size) {
+        if (size == null) {
+            return null;
+        }
+        for (ImageVariant variant : values()) {
+            if (variant.paramName().equalsIgnoreCase(size)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.phegondev.PhegonHotel.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes each accepted value as one JSON line (NDJSON) straight to the output stream,
+ * so streamed listings never hold more than one row in memory.
+ */
+public class NdjsonWriter<T> implements Consumer<T> {
+
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+    private final boolean flushEachLine;
+
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+        this(out, objectMapper, false);
+    }
+
+    // flushEachLine pushes every line to the client immediately, for progress feeds rather than bulk listings
+    public NdjsonWriter(OutputStream out, ObjectMapper objectMapper, boolean flushEachLine) {
+        this.out = out;
+        this.objectMapper = objectMapper;
+        this.flushEachLine = flushEachLine;
+    }
+
+    @Override
+    public void accept(T value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            if (flushEachLine) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -6,9 +6,18 @@ import com.phegondev.PhegonHotel.dto.UserDTO;
 import com.phegondev.PhegonHotel.entity.Booking;
 import com.phegondev.PhegonHotel.entity.Room;
 import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.exception.OurException;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class Utils {
@@ -16,6 +25,9 @@ public class Utils {
     private static final String ALPHANUMERIC_STRING = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
     private static final SecureRandom secureRandom = new SecureRandom();
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
 
     public static String generateRandomConfirmationCode(int length) {
         StringBuilder stringBuilder = new StringBuilder();
@@ -28,6 +40,15 @@ public class Utils {
     }
 
 
+    // Distinct codes for a bulk booking; uniqueness across requests relies on the code length as before
+    public static List<String> generateRandomConfirmationCodes(int count, int length) {
+        Set<String> codes = new LinkedHashSet<>();
+        while (codes.size() < count) {
+            codes.add(generateRandomConfirmationCode(length));
+        }
+        return new ArrayList<>(codes);
+    }
+
     public static UserDTO mapUserEntityToUserDTO(User user) {
         UserDTO userDTO = new UserDTO();
 
@@ -46,10 +67,24 @@ public class Utils {
         roomDTO.setRoomType(room.getRoomType());
         roomDTO.setRoomPrice(room.getRoomPrice());
         roomDTO.setRoomPhotoUrl(room.getRoomPhotoUrl());
+        roomDTO.setRoomPhotoUrls(mapRoomPhotoUrls(room.getRoomPhotoUrl()));
         roomDTO.setRoomDescription(room.getRoomDescription());
+        roomDTO.setCapacity(room.getCapacity());
         return roomDTO;
     }
 
+    // Derivative URLs only exist for locally stored photos; S3 or external URLs are passed through as-is
+    public static Map<String, String> mapRoomPhotoUrls(String roomPhotoUrl) {
+        if (roomPhotoUrl == null || !roomPhotoUrl.startsWith("/images/")) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            urls.put(variant.paramName(), roomPhotoUrl + "?size=" + variant.paramName());
+        }
+        return urls;
+    }
+
     public static BookingDTO mapBookingEntityToBookingDTO(Booking booking) {
         BookingDTO bookingDTO = new BookingDTO();
         // Map simple fields
@@ -70,7 +105,9 @@ public class Utils {
         roomDTO.setRoomType(room.getRoomType());
         roomDTO.setRoomPrice(room.getRoomPrice());
         roomDTO.setRoomPhotoUrl(room.getRoomPhotoUrl());
+        roomDTO.setRoomPhotoUrls(mapRoomPhotoUrls(room.getRoomPhotoUrl()));
         roomDTO.setRoomDescription(room.getRoomDescription());
+        roomDTO.setCapacity(room.getCapacity());
 
         if (room.getBookings() != null) {
             roomDTO.setBookings(room.getBookings().stream().map(Utils::mapBookingEntityToBookingDTO).collect(Collectors.toList()));
@@ -99,13 +136,15 @@ public class Utils {
             roomDTO.setRoomType(booking.getRoom().getRoomType());
             roomDTO.setRoomPrice(booking.getRoom().getRoomPrice());
             roomDTO.setRoomPhotoUrl(booking.getRoom().getRoomPhotoUrl());
+            roomDTO.setRoomPhotoUrls(mapRoomPhotoUrls(booking.getRoom().getRoomPhotoUrl()));
             roomDTO.setRoomDescription(booking.getRoom().getRoomDescription());
+            roomDTO.setCapacity(booking.getRoom().getCapacity());
             bookingDTO.setRoom(roomDTO);
         }
         return bookingDTO;
     }
 
-    public static UserDTO mapUserEntityToUserDTOPlusUserBookingsAndRoom(User user) {
+    public static UserDTO mapUserEntityToUserDTOPlusUserBookingsAndRoom(User user, List<Booking> bookings) {
         UserDTO userDTO = new UserDTO();
 
         userDTO.setId(user.getId());
@@ -114,8 +153,8 @@ public class Utils {
         userDTO.setPhoneNumber(user.getPhoneNumber());
         userDTO.setRole(user.getRole());
 
-        if (!user.getBookings().isEmpty()) {
-            userDTO.setBookings(user.getBookings().stream().map(booking -> mapBookingEntityToBookingDTOPlusBookedRooms(booking, false)).collect(Collectors.toList()));
+        if (!bookings.isEmpty()) {
+            userDTO.setBookings(bookings.stream().map(booking -> mapBookingEntityToBookingDTOPlusBookedRooms(booking, false)).collect(Collectors.toList()));
         }
         return userDTO;
     }
@@ -133,7 +172,54 @@ public class Utils {
         return bookingList.stream().map(Utils::mapBookingEntityToBookingDTO).collect(Collectors.toList());
     }
 
+    public static int clampPageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
 
-}
+    // Cursor is the last id of the previous page, lists are sorted by id DESC
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
 
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new OurException("Invalid cursor");
+            }
+            return Long.valueOf(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new OurException("Invalid cursor");
+        }
+    }
 
+    // Room search keyset: the (roomPrice, id) of the last room of the previous page
+    public record PriceCursor(BigDecimal roomPrice, Long id) {
+    }
+
+    public static String encodePriceCursor(BigDecimal roomPrice, Long lastId) {
+        String value = "price:" + roomPrice.toPlainString() + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PriceCursor decodePriceCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !parts[0].equals("price")) {
+                throw new OurException("Invalid cursor");
+            }
+            return new PriceCursor(new BigDecimal(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new OurException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.RoomSearchCriteria;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two H2 databases stand in for the MySQL primary and replica; "replication" is a SCRIPT/RUNSCRIPT snapshot
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"app.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+		"app.datasource.replica.max-lag=1h",
+		"app.datasource.replica.lag-check-interval-ms=3600000"
+})
+class ReadReplicaRoutingTest {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+	private static final String SNAPSHOT = "target/routing-replica-snapshot.sql";
+	private static boolean replicated;
+	private static Long sharedRoomId;
+	private static Long userId;
+
+	@Autowired
+	private IRoomService roomService;
+	@Autowired
+	private IBookingService bookingService;
+	@Autowired
+	private RoomRepository roomRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private ReplicaRouting replicaRouting;
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+
+	// Writes to the replica database directly; the replica pool itself is read-only
+	private final JdbcTemplate replicaWriter = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+	@BeforeEach
+	void replicateOnce() {
+		if (!replicated) {
+			Room room = new Room();
+			room.setRoomType("Routing Shared");
+			room.setRoomPrice(BigDecimal.valueOf(90));
+			sharedRoomId = roomRepository.save(room).getId();
+			User user = new User();
+			user.setEmail("routing@test.local");
+			user.setName("Routing Tester");
+			user.setPhoneNumber("0000000000");
+			user.setPassword("secret");
+			user.setRole("USER");
+			userId = userRepository.save(user).getId();
+
+			new JdbcTemplate(primaryDataSource).execute("SCRIPT TO '" + SNAPSHOT + "'");
+			replicaWriter.execute("RUNSCRIPT FROM '" + SNAPSHOT + "'");
+			new JdbcTemplate(primaryDataSource).update("INSERT INTO rooms (room_type, room_price) VALUES ('Routing Primary', 10)");
+			replicaWriter.update("INSERT INTO rooms (room_type, room_price) VALUES ('Routing Replica', 10)");
+			replicated = true;
+		}
+		replicaWriter.update("MERGE INTO replica_heartbeat (id, beat_at) KEY (id) VALUES (1, ?)", System.currentTimeMillis());
+		replicaRouting.checkReplicaLag();
+		assertThat(replicaRouting.isReplicaAvailable()).isTrue();
+	}
+
+	@AfterEach
+	void clearUser() {
+		SecurityContextHolder.clearContext();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void readOnlyServiceMethodsReadFromTheReplica() {
+		assertThat(searchedTypes()).containsExactly("Routing Replica");
+		// Plain repository reads keep Spring Data's read-only transaction but stay on the primary
+		assertThat(roomRepository.findAll()).extracting(Room::getRoomType).contains("Routing Primary")
+				.doesNotContain("Routing Replica");
+	}
+
+	@Test
+	void aLaggingReplicaIsBypassed() {
+		replicaWriter.update("UPDATE replica_heartbeat SET beat_at = ?", System.currentTimeMillis() - 2 * 3_600_000L);
+		replicaRouting.checkReplicaLag();
+
+		assertThat(replicaRouting.isReplicaAvailable()).isFalse();
+		assertThat(searchedTypes()).containsExactly("Routing Primary");
+	}
+
+	@Test
+	void aUserReadsTheirOwnBookingFromThePrimary() {
+		actAs("routing@test.local");
+		MockHttpServletResponse bookingResponse = inRequest();
+		Booking booking = new Booking();
+		booking.setCheckInDate(LocalDate.now().plusDays(30));
+		booking.setCheckOutDate(LocalDate.now().plusDays(31));
+		booking.setNumOfAdults(1);
+		Response saved = bookingService.saveBooking(sharedRoomId, userId, booking);
+		assertThat(saved.getStatusCode()).isEqualTo(200);
+		Cookie sticky = bookingResponse.getCookie(ReplicaRouting.STICKY_COOKIE);
+		assertThat(sticky).isNotNull();
+
+		// A later request, possibly served by another instance, only has the cookie to go on.
+		// The replica never receives the booking, so finding it proves the read went to the primary
+		inRequest(sticky);
+		assertThat(bookingService.findBookingByConfirmationCode(saved.getBookingConfirmationCode()).getStatusCode())
+				.isEqualTo(200);
+		assertThat(searchedTypes()).containsExactly("Routing Primary");
+
+		// Without the cookie, or with a cookie signed for another user, reads go back to the replica
+		inRequest();
+		assertThat(searchedTypes()).containsExactly("Routing Replica");
+		actAs("someone-else@test.local");
+		inRequest(sticky);
+		assertThat(bookingService.findBookingByConfirmationCode(saved.getBookingConfirmationCode()).getStatusCode())
+				.isEqualTo(404);
+		assertThat(searchedTypes()).containsExactly("Routing Replica");
+	}
+
+	private List<String> searchedTypes() {
+		RoomSearchCriteria criteria = new RoomSearchCriteria();
+		criteria.setRoomType(List.of("Routing Primary", "Routing Replica"));
+		Response response = roomService.searchRooms(criteria);
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		return response.getRoomList().stream().map(RoomDTO::getRoomType).toList();
+	}
+
+	private static MockHttpServletResponse inRequest(Cookie... cookies) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		if (cookies.length > 0) {
+			request.setCookies(cookies);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+		return response;
+	}
+
+	private static void actAs(String email) {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+	}
+}
@@ -0,0 +1,96 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseEncodingTest {
+
+	private static final String SMILE = "application/x-jackson-smile";
+	private static final String CBOR = "application/cbor";
+
+	@LocalServerPort
+	private int port;
+	@Autowired
+	private RoomRepository roomRepository;
+
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+	private Long roomId;
+
+	@BeforeEach
+	void seedRoom() {
+		Room room = new Room();
+		room.setRoomType("Encoding Suite");
+		room.setRoomPrice(BigDecimal.valueOf(120));
+		room.setRoomDescription("A room with a fairly long description that JSON spells out in full");
+		room.setCapacity(2);
+		roomId = roomRepository.save(room).getId();
+	}
+
+	@Test
+	void binaryEncodingsCarryTheSameDocument() throws Exception {
+		HttpResponse<byte[]> json = get("/rooms/room-by-id/" + roomId, "application/json");
+		HttpResponse<byte[]> smile = get("/rooms/room-by-id/" + roomId, SMILE);
+		HttpResponse<byte[]> cbor = get("/rooms/room-by-id/" + roomId, CBOR);
+
+		assertThat(smile.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith(SMILE));
+		assertThat(cbor.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith(CBOR));
+		for (JsonNode body : List.of(new ObjectMapper().readTree(json.body()),
+				new ObjectMapper(new SmileFactory()).readTree(smile.body()),
+				new ObjectMapper(new CBORFactory()).readTree(cbor.body()))) {
+			JsonNode room = body.get("room");
+			assertThat(room.get("id").asLong()).isEqualTo(roomId);
+			assertThat(room.get("roomType").asText()).isEqualTo("Encoding Suite");
+			assertThat(room.get("roomPrice").decimalValue()).isEqualByComparingTo("120");
+			assertThat(room.get("capacity").asInt()).isEqualTo(2);
+		}
+		assertThat(smile.body().length).isLessThan(json.body().length);
+		assertThat(cbor.body().length).isLessThan(json.body().length);
+	}
+
+	@Test
+	void fieldsTrimsTheDtosButNotTheEnvelope() throws Exception {
+		JsonNode body = new ObjectMapper(new SmileFactory())
+				.readTree(get("/rooms/room-by-id/" + roomId + "?fields=id,roomType", SMILE).body());
+
+		assertThat(body.get("statusCode").asInt()).isEqualTo(200);
+		assertThat(body.get("message").asText()).isEqualTo("successful");
+		JsonNode room = body.get("room");
+		assertThat(room.get("id").asLong()).isEqualTo(roomId);
+		assertThat(room.get("roomType").asText()).isEqualTo("Encoding Suite");
+		assertThat(room.has("roomPrice")).isFalse();
+		assertThat(room.has("roomDescription")).isFalse();
+
+		// Without the parameter the same (cached) response is complete again
+		JsonNode full = new ObjectMapper().readTree(get("/rooms/room-by-id/" + roomId, "application/json").body());
+		assertThat(full.get("room").get("roomPrice").decimalValue()).isEqualByComparingTo("120");
+	}
+
+	private HttpResponse<byte[]> get(String path, String accept) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Accept", accept)
+				.GET()
+				.build();
+		HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		assertThat(response.statusCode()).isEqualTo(200);
+		return response;
+	}
+}
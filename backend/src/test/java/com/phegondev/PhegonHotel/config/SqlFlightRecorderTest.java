@@ -0,0 +1,92 @@
+package com.phegondev.PhegonHotel.config;
+
+import com.phegondev.PhegonHotel.dto.SlowRequestDTO;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Traces are opened on the test thread the way SlowRequestFilter opens them on the request thread
+@SpringBootTest(properties = {
+		"diagnostics.flight-recorder.threshold=0ms",
+		"diagnostics.flight-recorder.capacity=3"
+})
+class SqlFlightRecorderTest {
+
+	@Autowired
+	private SqlFlightRecorder recorder;
+	@Autowired
+	private IUserService userService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private DataSource dataSource;
+
+	@BeforeEach
+	void clearRecorder() {
+		recorder.clear();
+	}
+
+	@Test
+	void repeatedStatementsAreGroupedUnderTheirCallSite() {
+		User user = new User();
+		user.setEmail(UUID.randomUUID() + "@test.local");
+		user.setName("Flight Recorder");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		Long userId = userRepository.save(user).getId();
+
+		SqlFlightRecorder.RequestTrace trace = recorder.begin("GET", "/users/get-by-id/" + userId);
+		for (int i = 0; i < 3; i++) {
+			assertThat(userService.getUserById(String.valueOf(userId)).getStatusCode()).isEqualTo(200);
+		}
+		recorder.finish(trace, "/users/get-by-id/{userId}", 200);
+
+		assertThat(recorder.slowRequests(10)).singleElement().satisfies(slowRequest -> {
+			assertThat(slowRequest.getRoute()).isEqualTo("/users/get-by-id/{userId}");
+			assertThat(slowRequest.getStatementCount()).isGreaterThanOrEqualTo(3);
+			assertThat(slowRequest.getStatements()).anySatisfy(statement -> {
+				assertThat(statement.getSql()).containsIgnoringCase("from users");
+				assertThat(statement.getCallSite()).startsWith("UserService.getUserById:");
+				assertThat(statement.getExecutions()).isEqualTo(3);
+			});
+		});
+	}
+
+	@Test
+	void onlyTheNewestRequestsAreKept() {
+		for (int i = 0; i < 5; i++) {
+			recorder.finish(recorder.begin("GET", "/rooms/" + i), null, 200);
+		}
+
+		assertThat(recorder.slowRequests(10)).extracting(SlowRequestDTO::getUri)
+				.containsExactly("/rooms/4", "/rooms/3", "/rooms/2");
+		assertThat(recorder.slowRequests(1)).extracting(SlowRequestDTO::getUri).containsExactly("/rooms/4");
+	}
+
+	@Test
+	void connectionsOutsideARequestAreNotWrapped() throws Exception {
+		assertThat(dataSource).isInstanceOf(RecordingDataSource.class);
+		try (Connection connection = dataSource.getConnection()) {
+			assertThat(Proxy.isProxyClass(connection.getClass())).isFalse();
+		}
+
+		SqlFlightRecorder.RequestTrace trace = recorder.begin("GET", "/rooms/all");
+		try (Connection connection = dataSource.getConnection()) {
+			assertThat(Proxy.isProxyClass(connection.getClass())).isTrue();
+		} finally {
+			recorder.finish(trace, null, 200);
+		}
+	}
+}
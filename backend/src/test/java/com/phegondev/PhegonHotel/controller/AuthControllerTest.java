@@ -0,0 +1,42 @@
+package com.phegondev.PhegonHotel.controller;
+
+import com.phegondev.PhegonHotel.exception.ServiceBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@MockBean
+	private AuthenticationManager authenticationManager;
+
+	@Test
+	void aSaturatedHashingPoolAnswers503WithRetryAfter() throws Exception {
+		when(authenticationManager.authenticate(any()))
+				.thenThrow(new ServiceBusyException("Too many login attempts in progress, please retry shortly", 2));
+
+		mockMvc.perform(post("/auth/login")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"busy@test.local\",\"password\":\"secret\"}"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "2"))
+				.andExpect(jsonPath("$.statusCode").value(503))
+				.andExpect(jsonPath("$.retryAfterSeconds").value(2));
+	}
+}
@@ -0,0 +1,35 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test knobs, read from system properties so they can be passed on the Maven command line,
+ * e.g. {@code -Dloadtest.rooms=500 -Dloadtest.concurrency=64}.
+ */
+record LoadTestConfig(int rooms, int users, int bookings, List<String> roomTypes,
+		int concurrency, int warmupSeconds, int durationSeconds, long seed, Map<String, Integer> mix) {
+
+	static LoadTestConfig fromSystemProperties() {
+		return new LoadTestConfig(
+				Integer.getInteger("loadtest.rooms", 200),
+				Integer.getInteger("loadtest.users", 1000),
+				Integer.getInteger("loadtest.bookings", 20000),
+				List.of(System.getProperty("loadtest.room-types", "Single,Double,Deluxe,Suite,Family").split(",")),
+				Integer.getInteger("loadtest.concurrency", 32),
+				Integer.getInteger("loadtest.warmup-seconds", 10),
+				Integer.getInteger("loadtest.duration-seconds", 60),
+				Long.getLong("loadtest.seed", 42L),
+				parseMix(System.getProperty("loadtest.mix", "search=55,history=20,book=15,login=10")));
+	}
+
+	private static Map<String, Integer> parseMix(String mix) {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.split("=");
+			weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+		}
+		return weights;
+	}
+}
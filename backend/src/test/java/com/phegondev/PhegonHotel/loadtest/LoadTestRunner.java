@@ -0,0 +1,103 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.phegondev.PhegonHotel.PhegonHotelApplication;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.thread.Threading;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application on a random port against in-memory H2 (MySQL mode), seeds a synthetic hotel,
+ * drives a mixed HTTP workload and prints p50/p95/p99 latency and throughput per endpoint.
+ * Results are also written to target/loadtest/ as JSON so releases can be compared.
+ *
+ * Run from backend/: {@code ./mvnw -Ploadtest verify}. To compare thread modes on JDK 21, run it twice at high
+ * concurrency, e.g. with {@code -Dloadtest.concurrency=512} and then also {@code -Dspring.threads.virtual.enabled=true}.
+ * Knobs (system properties): loadtest.rooms, loadtest.users, loadtest.bookings, loadtest.room-types,
+ * loadtest.concurrency, loadtest.warmup-seconds, loadtest.duration-seconds, loadtest.seed,
+ * loadtest.mix (e.g. search=55,history=20,book=15,login=10).
+ */
+public class LoadTestRunner {
+
+	public static void main(String[] args) throws Exception {
+		LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+		SpringApplication application = new SpringApplication(PhegonHotelApplication.class);
+		application.setAdditionalProfiles("loadtest");
+		try (ConfigurableApplicationContext context = application.run(args)) {
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+			long seedStarted = System.nanoTime();
+			SyntheticDataGenerator generator = new SyntheticDataGenerator(context.getBean(JdbcTemplate.class), config.seed());
+			List<Long> roomIds = generator.seedRooms(config.rooms(), config.roomTypes());
+			String passwordHash = context.getBean(PasswordEncoder.class).encode(SyntheticDataGenerator.PASSWORD);
+			List<Long> userIds = generator.seedUsers(config.users(), passwordHash);
+			int bookings = generator.seedBookings(config.bookings(), roomIds, userIds);
+			// Seeding bypassed the services, so rebuild the in-memory index and drop anything cached
+			context.getBean(RoomAvailabilityIndex.class).rebuild();
+			CacheManager cacheManager = context.getBean(CacheManager.class);
+			cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+			List<String> roomTypes = context.getBean(RoomRepository.class).findDistinctRoomTypes();
+			System.out.printf("Seeded %d rooms (%s), %d users, %d bookings in %d ms%n", roomIds.size(), roomTypes,
+					userIds.size(), bookings, (System.nanoTime() - seedStarted) / 1_000_000);
+
+			ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+			String threading = Threading.VIRTUAL.isActive(context.getEnvironment()) ? "virtual" : "platform";
+			System.out.printf("Running %d workers against %s request threads: %ds warm-up, %ds measured, mix %s%n",
+					config.concurrency(), threading, config.warmupSeconds(), config.durationSeconds(), config.mix());
+			Map<String, WorkloadDriver.EndpointStats> results =
+					new WorkloadDriver(baseUrl, config, roomTypes, roomIds, userIds, objectMapper).run();
+
+			report(config, threading, results, objectMapper);
+		}
+	}
+
+	private static void report(LoadTestConfig config, String threading, Map<String, WorkloadDriver.EndpointStats> results,
+							   ObjectMapper objectMapper) throws Exception {
+		System.out.printf("%n%-10s %9s %8s %9s %10s %9s %9s %9s%n",
+				"endpoint", "requests", "errors", "conflicts", "req/s", "p50 ms", "p95 ms", "p99 ms");
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		for (Map.Entry<String, WorkloadDriver.EndpointStats> entry : results.entrySet()) {
+			WorkloadDriver.EndpointStats stats = entry.getValue();
+			double throughput = stats.count() / (double) config.durationSeconds();
+			double p50 = stats.percentileMillis(50);
+			double p95 = stats.percentileMillis(95);
+			double p99 = stats.percentileMillis(99);
+			System.out.printf("%-10s %9d %8d %9d %10.1f %9.2f %9.2f %9.2f%n",
+					entry.getKey(), stats.count(), stats.errors(), stats.conflicts(), throughput, p50, p95, p99);
+
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("requests", stats.count());
+			row.put("errors", stats.errors());
+			row.put("conflicts", stats.conflicts());
+			row.put("throughputPerSecond", throughput);
+			row.put("p50Millis", p50);
+			row.put("p95Millis", p95);
+			row.put("p99Millis", p99);
+			endpoints.put(entry.getKey(), row);
+		}
+
+		Map<String, Object> document = new LinkedHashMap<>();
+		document.put("timestamp", Instant.now().toString());
+		document.put("threads", threading);
+		document.put("config", config);
+		document.put("endpoints", endpoints);
+		Path output = Path.of("target", "loadtest", "loadtest-" + System.currentTimeMillis() + ".json");
+		Files.createDirectories(output.getParent());
+		objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), document);
+		System.out.println("\nResults written to " + output.toAbsolutePath());
+	}
+}
@@ -0,0 +1,146 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import com.phegondev.PhegonHotel.utils.DayBitmap;
+import com.phegondev.PhegonHotel.utils.Utils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds rooms, users and bookings with plain JDBC batches.
+ * Bookings never overlap per room and follow a rough real-world shape: about a third are past stays,
+ * future lead times cluster in the first weeks, short stays dominate, weekend check-ins are common
+ * and a few rooms are much more popular than the rest.
+ * Seeded bookings have no room_nights rows, like bookings made before that table existed;
+ * the overlap query in BookingService still sees them.
+ */
+class SyntheticDataGenerator {
+
+	private static final int BATCH_SIZE = 1000;
+	private static final int PAST_DAYS = 365;
+	private static final int FUTURE_DAYS = 400;
+	private static final int[] STAY_WEIGHTS = {30, 25, 18, 10, 7, 5, 5}; // 1..7 nights
+
+	static final String PASSWORD = "loadtest-password";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Random random;
+
+	SyntheticDataGenerator(JdbcTemplate jdbcTemplate, long seed) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.random = new Random(seed);
+	}
+
+	List<Long> seedRooms(int count, List<String> roomTypes) {
+		List<Object[]> rows = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String roomType = roomTypes.get(i % roomTypes.size()).trim();
+			BigDecimal price = BigDecimal.valueOf(1200 + random.nextInt(40) * 100L);
+			rows.add(new Object[]{roomType, price, null, roomType + " room " + (i + 1)});
+		}
+		batch("INSERT INTO rooms (room_type, room_price, room_photo_url, room_description) VALUES (?, ?, ?, ?)", rows);
+		return jdbcTemplate.queryForList("SELECT id FROM rooms ORDER BY id", Long.class);
+	}
+
+	// One BCrypt hash is shared by all users; hashing per user would dominate seeding time
+	List<Long> seedUsers(int count, String passwordHash) {
+		List<Object[]> rows = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			rows.add(new Object[]{email(i), "Load Test User " + i, String.format("08%08d", i), passwordHash, "USER"});
+		}
+		batch("INSERT INTO users (email, name, phone_number, password, role) VALUES (?, ?, ?, ?, ?)", rows);
+		return jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+	}
+
+	int seedBookings(int count, List<Long> roomIds, List<Long> userIds) {
+		LocalDate today = LocalDate.now();
+		LocalDate horizonStart = today.minusDays(PAST_DAYS);
+		int horizon = PAST_DAYS + FUTURE_DAYS + STAY_WEIGHTS.length;
+		DayBitmap[] taken = new DayBitmap[roomIds.size()];
+		for (int i = 0; i < taken.length; i++) {
+			taken[i] = new DayBitmap(horizon);
+		}
+
+		List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+		int created = 0;
+		for (int attempt = 0; attempt < count * 3 && created < count; attempt++) {
+			int room = popularRoom(roomIds.size());
+			LocalDate checkIn = checkInDate(today);
+			int nights = stayLength();
+			int from = (int) ChronoUnit.DAYS.between(horizonStart, checkIn);
+			if (!taken[room].isClear(from, from + nights)) {
+				continue;
+			}
+			taken[room].set(from, from + nights);
+
+			int adults = 1 + random.nextInt(3);
+			int children = random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(2);
+			rows.add(new Object[]{Date.valueOf(checkIn), Date.valueOf(checkIn.plusDays(nights)), adults, children,
+					adults + children, Utils.generateRandomConfirmationCode(10),
+					userIds.get(random.nextInt(userIds.size())), roomIds.get(room)});
+			created++;
+			if (rows.size() == BATCH_SIZE) {
+				insertBookings(rows);
+				rows.clear();
+			}
+		}
+		insertBookings(rows);
+		return created;
+	}
+
+	static String email(int index) {
+		return "loadtest-user-" + index + "@example.com";
+	}
+
+	private LocalDate checkInDate(LocalDate today) {
+		LocalDate checkIn;
+		if (random.nextInt(3) == 0) {
+			checkIn = today.minusDays(1 + random.nextInt(PAST_DAYS - 1));
+		} else {
+			// Exponential lead time, mean three weeks
+			long lead = Math.min(FUTURE_DAYS - 1, (long) (-21 * Math.log(1 - random.nextDouble())));
+			checkIn = today.plusDays(lead);
+		}
+		if (random.nextInt(10) < 3) {
+			checkIn = checkIn.with(TemporalAdjusters.nextOrSame(DayOfWeek.FRIDAY));
+		}
+		LocalDate latest = today.plusDays(FUTURE_DAYS - 1);
+		return checkIn.isAfter(latest) ? latest : checkIn;
+	}
+
+	private int stayLength() {
+		int roll = random.nextInt(100);
+		for (int i = 0; i < STAY_WEIGHTS.length; i++) {
+			roll -= STAY_WEIGHTS[i];
+			if (roll < 0) {
+				return i + 1;
+			}
+		}
+		return STAY_WEIGHTS.length;
+	}
+
+	// Squaring a uniform value skews picks towards the first rooms
+	private int popularRoom(int roomCount) {
+		double r = random.nextDouble();
+		return (int) (r * r * roomCount);
+	}
+
+	private void insertBookings(List<Object[]> rows) {
+		batch("INSERT INTO bookings (check_in_date, check_out_date, num_of_adults, num_of_children, total_num_of_guest, "
+				+ "booking_confirmation_code, user_id, room_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+	}
+
+	private void batch(String sql, List<Object[]> rows) {
+		for (int i = 0; i < rows.size(); i += BATCH_SIZE) {
+			jdbcTemplate.batchUpdate(sql, rows.subList(i, Math.min(rows.size(), i + BATCH_SIZE)));
+		}
+	}
+}
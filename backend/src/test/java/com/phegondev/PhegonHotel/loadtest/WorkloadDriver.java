@@ -0,0 +1,229 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop mixed workload: each worker logs in as its own user, then issues requests back to back,
+ * picking the endpoint by weight. Only requests started after the warm-up are recorded.
+ */
+class WorkloadDriver {
+
+	static final String SEARCH = "search";
+	static final String HISTORY = "history";
+	static final String BOOK = "book";
+	static final String LOGIN = "login";
+
+	private final String baseUrl;
+	private final LoadTestConfig config;
+	private final List<String> roomTypes;
+	private final List<Long> roomIds;
+	private final List<Long> userIds;
+	private final ObjectMapper objectMapper;
+	private final HttpClient httpClient;
+
+	WorkloadDriver(String baseUrl, LoadTestConfig config, List<String> roomTypes, List<Long> roomIds,
+				   List<Long> userIds, ObjectMapper objectMapper) {
+		this.baseUrl = baseUrl;
+		this.config = config;
+		this.roomTypes = roomTypes;
+		this.roomIds = roomIds;
+		this.userIds = userIds;
+		this.objectMapper = objectMapper;
+		this.httpClient = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(Executors.newFixedThreadPool(Math.max(4, config.concurrency() / 4)))
+				.build();
+	}
+
+	Map<String, EndpointStats> run() throws Exception {
+		long measureFrom = System.nanoTime() + Duration.ofSeconds(config.warmupSeconds()).toNanos();
+		long deadline = measureFrom + Duration.ofSeconds(config.durationSeconds()).toNanos();
+
+		ExecutorService workers = Executors.newFixedThreadPool(config.concurrency());
+		List<Future<Map<String, EndpointStats>>> results = new ArrayList<>();
+		for (int worker = 0; worker < config.concurrency(); worker++) {
+			int userIndex = worker % userIds.size();
+			long seed = config.seed() + worker;
+			results.add(workers.submit(() -> runWorker(userIndex, seed, measureFrom, deadline)));
+		}
+
+		Map<String, EndpointStats> merged = new LinkedHashMap<>();
+		for (String endpoint : config.mix().keySet()) {
+			merged.put(endpoint, new EndpointStats());
+		}
+		for (Future<Map<String, EndpointStats>> result : results) {
+			result.get().forEach((endpoint, stats) -> merged.get(endpoint).merge(stats));
+		}
+		workers.shutdown();
+		return merged;
+	}
+
+	private Map<String, EndpointStats> runWorker(int userIndex, long seed, long measureFrom, long deadline) throws Exception {
+		Random random = new Random(seed);
+		Long userId = userIds.get(userIndex);
+		String email = SyntheticDataGenerator.email(userIndex);
+		String token = login(email).path("token").asText();
+
+		Map<String, EndpointStats> stats = new LinkedHashMap<>();
+		for (String endpoint : config.mix().keySet()) {
+			stats.put(endpoint, new EndpointStats());
+		}
+		int totalWeight = config.mix().values().stream().mapToInt(Integer::intValue).sum();
+
+		long now;
+		while ((now = System.nanoTime()) < deadline) {
+			String endpoint = pick(random.nextInt(totalWeight));
+			HttpRequest request = switch (endpoint) {
+				case SEARCH -> search(random);
+				case HISTORY -> authorized(get("/users/get-user-bookings/" + userId), token);
+				case BOOK -> book(random, userId, token);
+				case LOGIN -> loginRequest(email);
+				default -> throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + endpoint);
+			};
+			int status;
+			try {
+				status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			} catch (IOException e) {
+				status = -1;
+			}
+			long elapsed = System.nanoTime() - now;
+			if (now >= measureFrom) {
+				stats.get(endpoint).record(elapsed, status, endpoint.equals(BOOK) && status == 404);
+			}
+		}
+		return stats;
+	}
+
+	private String pick(int roll) {
+		for (Map.Entry<String, Integer> entry : config.mix().entrySet()) {
+			roll -= entry.getValue();
+			if (roll < 0) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException("Empty loadtest.mix");
+	}
+
+	private HttpRequest search(Random random) {
+		LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(120));
+		LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+		String roomType = roomTypes.get(random.nextInt(roomTypes.size()));
+		return get("/rooms/available-rooms-by-date-and-type?checkInDate=" + checkIn + "&checkOutDate=" + checkOut
+				+ "&roomType=" + URLEncoder.encode(roomType, StandardCharsets.UTF_8));
+	}
+
+	private HttpRequest book(Random random, Long userId, String token) throws IOException {
+		LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(365));
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("checkInDate", checkIn.toString());
+		body.put("checkOutDate", checkIn.plusDays(1 + random.nextInt(4)).toString());
+		body.put("numOfAdults", 1 + random.nextInt(2));
+		body.put("numOfChildren", random.nextInt(2));
+		Long roomId = roomIds.get(random.nextInt(roomIds.size()));
+		return authorized(post("/bookings/book-room/" + roomId + "/" + userId, body), token);
+	}
+
+	private JsonNode login(String email) throws IOException, InterruptedException {
+		HttpResponse<byte[]> response = httpClient.send(loginRequest(email), HttpResponse.BodyHandlers.ofByteArray());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("Login failed for " + email + ": HTTP " + response.statusCode());
+		}
+		return objectMapper.readTree(response.body());
+	}
+
+	private HttpRequest loginRequest(String email) {
+		try {
+			return post("/auth/login", Map.of("email", email, "password", SyntheticDataGenerator.PASSWORD));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+	}
+
+	private HttpRequest post(String path, Object body) throws IOException {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+				.build();
+	}
+
+	private static HttpRequest authorized(HttpRequest request, String token) {
+		return HttpRequest.newBuilder(request, (name, value) -> true)
+				.header("Authorization", "Bearer " + token)
+				.build();
+	}
+
+	// Latencies in nanoseconds for one endpoint; a booking rejected as unavailable counts as a conflict, not an error
+	static final class EndpointStats {
+		private long[] latencies = new long[1024];
+		private int count;
+		private int errors;
+		private int conflicts;
+
+		void record(long latencyNanos, int status, boolean conflict) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latencyNanos;
+			if (conflict) {
+				conflicts++;
+			} else if (status < 200 || status >= 300) {
+				errors++;
+			}
+		}
+
+		void merge(EndpointStats other) {
+			for (int i = 0; i < other.count; i++) {
+				record(other.latencies[i], 200, false);
+			}
+			errors += other.errors;
+			conflicts += other.conflicts;
+		}
+
+		int count() {
+			return count;
+		}
+
+		int errors() {
+			return errors;
+		}
+
+		int conflicts() {
+			return conflicts;
+		}
+
+		double percentileMillis(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long[] sorted = Arrays.copyOf(latencies, count);
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+			return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+		}
+	}
+}
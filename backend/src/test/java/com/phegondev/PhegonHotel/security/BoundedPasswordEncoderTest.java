@@ -0,0 +1,105 @@
+package com.phegondev.PhegonHotel.security;
+
+import com.phegondev.PhegonHotel.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private BoundedPasswordEncoder encoder;
+
+	@AfterEach
+	void releaseWorkers() {
+		release.countDown();
+		encoder.shutdown();
+	}
+
+	@Test
+	void rejectsImmediatelyWhenTheQueueIsFull() throws Exception {
+		encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, Duration.ofSeconds(30), Duration.ofSeconds(3));
+		occupyWorker();
+		CompletableFuture.runAsync(() -> encoder.encode("queued"));
+		awaitQueued(1);
+
+		long startedAt = System.nanoTime();
+		assertThatThrownBy(() -> encoder.encode("rejected"))
+				.isInstanceOfSatisfying(ServiceBusyException.class, e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+		assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void givesUpAfterMaxWait() throws Exception {
+		encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 4, Duration.ofMillis(200), Duration.ofSeconds(2));
+		occupyWorker();
+
+		assertThatThrownBy(() -> encoder.matches("waiting", "{old}waiting"))
+				.isInstanceOf(ServiceBusyException.class);
+		// The timed out hash is cancelled rather than left to run later
+		assertThat(encoder.queuedTasks()).isZero();
+	}
+
+	@Test
+	void skipsTheHashUpgradeInsteadOfFailingWhileBusy() throws Exception {
+		encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 4, Duration.ofMillis(200), Duration.ofSeconds(2));
+
+		assertThat(encoder.tryUpgrade("{current}secret", "secret")).isEmpty();
+
+		occupyWorker();
+		CompletableFuture.runAsync(() -> encoder.encode("queued"));
+		awaitQueued(1);
+		assertThat(encoder.tryUpgrade("{old}secret", "secret")).isEmpty();
+
+		release.countDown();
+		awaitQueued(0);
+		assertThat(encoder.tryUpgrade("{old}secret", "secret")).contains("{current}secret");
+	}
+
+	private void occupyWorker() throws InterruptedException {
+		CompletableFuture.runAsync(() -> encoder.encode("running"));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private void awaitQueued(int tasks) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (encoder.queuedTasks() != tasks && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+		assertThat(encoder.queuedTasks()).isEqualTo(tasks);
+	}
+
+	// Holds the first hash until the test releases it; "{old}" hashes need an upgrade
+	private class BlockingEncoder implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "{current}" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+
+		@Override
+		public boolean upgradeEncoding(String encodedPassword) {
+			return encodedPassword.startsWith("{old}");
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CatalogSnapshotsTest {
+
+	@LocalServerPort
+	private int port;
+	@Autowired
+	private CatalogSnapshots catalogSnapshots;
+	@Autowired
+	private RoomRepository roomRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+
+	@Test
+	void repeatClientsGetNotModified() throws Exception {
+		String roomType = addRoom();
+
+		HttpResponse<byte[]> first = get("/rooms/all", "gzip, deflate", null);
+		assertThat(first.statusCode()).isEqualTo(200);
+		assertThat(first.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		JsonNode body = objectMapper.readTree(new GZIPInputStream(new ByteArrayInputStream(first.body())));
+		assertThat(body.get("statusCode").asInt()).isEqualTo(200);
+		assertThat(body.get("roomList").findValuesAsText("roomType")).contains(roomType);
+		String eTag = first.headers().firstValue("ETag").orElseThrow();
+
+		HttpResponse<byte[]> repeat = get("/rooms/all", "gzip, deflate", eTag);
+		assertThat(repeat.statusCode()).isEqualTo(304);
+		assertThat(repeat.body()).isEmpty();
+
+		HttpResponse<byte[]> deflated = get("/rooms/all", "deflate", null);
+		assertThat(deflated.headers().firstValue("Content-Encoding")).hasValue("deflate");
+		assertThat(objectMapper.readTree(new InflaterInputStream(new ByteArrayInputStream(deflated.body())))).isEqualTo(body);
+		assertThat(deflated.headers().firstValue("ETag")).hasValueSatisfying(tag -> assertThat(tag).isNotEqualTo(eTag));
+
+		// A room change outdates the snapshot and the client's copy
+		addRoom();
+		assertThat(get("/rooms/all", "gzip", eTag).statusCode()).isEqualTo(200);
+	}
+
+	@Test
+	void bookingChangesOnlyOutdateTheAvailableRooms() throws Exception {
+		CatalogSnapshots.Snapshot allRooms = catalogSnapshots.get(CatalogSnapshots.View.ALL_ROOMS);
+		CatalogSnapshots.Snapshot availableRooms = catalogSnapshots.get(CatalogSnapshots.View.AVAILABLE_ROOMS);
+		assertThat(catalogSnapshots.get(CatalogSnapshots.View.ALL_ROOMS)).isSameAs(allRooms);
+
+		catalogSnapshots.bookingsChanged();
+		assertThat(catalogSnapshots.get(CatalogSnapshots.View.ALL_ROOMS)).isSameAs(allRooms);
+		CatalogSnapshots.Snapshot rebuilt = catalogSnapshots.get(CatalogSnapshots.View.AVAILABLE_ROOMS);
+		assertThat(rebuilt).isNotSameAs(availableRooms);
+		// Nothing actually changed, so clients keep their copy
+		assertThat(rebuilt.digest()).isEqualTo(availableRooms.digest());
+
+		catalogSnapshots.roomsChanged();
+		assertThat(catalogSnapshots.get(CatalogSnapshots.View.ALL_ROOMS)).isNotSameAs(allRooms);
+	}
+
+	@Test
+	void sparseFieldsBypassTheSnapshot() throws Exception {
+		HttpResponse<byte[]> response = get("/rooms/all?fields=id", null, null);
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("ETag")).isEmpty();
+		assertThat(objectMapper.readTree(response.body()).get("roomList")).allSatisfy(room ->
+				assertThat(room.fieldNames()).toIterable().containsExactly("id"));
+	}
+
+	private String addRoom() {
+		Room room = new Room();
+		room.setRoomType("Snapshot " + UUID.randomUUID());
+		room.setRoomPrice(BigDecimal.valueOf(80));
+		roomRepository.save(room);
+		catalogSnapshots.roomsChanged();
+		return room.getRoomType();
+	}
+
+	private HttpResponse<byte[]> get(String path, String acceptEncoding, String ifNoneMatch) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+		if (acceptEncoding != null) {
+			request.header("Accept-Encoding", acceptEncoding);
+		}
+		if (ifNoneMatch != null) {
+			request.header("If-None-Match", ifNoneMatch);
+		}
+		return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+}
@@ -0,0 +1,59 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.utils.ImageVariant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "file.images.max-source-pixels=10000")
+class ImageDerivativeServiceTest {
+
+	@Autowired
+	private ImageDerivativeService imageDerivativeService;
+
+	@TempDir
+	private Path dir;
+
+	@Test
+	void derivativesAreMadeOnlyFromOriginals() throws Exception {
+		Path original = png("0f3a.png", 80, 60);
+		assertThat(imageDerivativeService.isDerivative(original)).isFalse();
+
+		imageDerivativeService.generate(original);
+
+		for (ImageVariant variant : ImageVariant.values()) {
+			Path derivative = imageDerivativeService.derivativePath(original, variant);
+			assertThat(derivative).isRegularFile();
+			assertThat(imageDerivativeService.isDerivative(derivative)).isTrue();
+		}
+		Path thumbnail = imageDerivativeService.derivativePath(original, ImageVariant.THUMBNAIL);
+		imageDerivativeService.generateAsync(thumbnail).get(5, TimeUnit.SECONDS);
+		assertThat(imageDerivativeService.derivativePath(thumbnail, ImageVariant.CARD)).doesNotExist();
+	}
+
+	@Test
+	void sourcesDeclaringTooManyPixelsAreNotDecoded() throws Exception {
+		Path original = png("9c1d.png", 200, 100);
+
+		imageDerivativeService.generate(original);
+
+		for (ImageVariant variant : ImageVariant.values()) {
+			assertThat(imageDerivativeService.derivativePath(original, variant)).doesNotExist();
+		}
+	}
+
+	private Path png(String name, int width, int height) throws Exception {
+		Path path = dir.resolve(name);
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", path.toFile());
+		return path;
+	}
+}
@@ -0,0 +1,179 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.dto.OccupancyStatsDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IAnalyticsService;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import com.phegondev.PhegonHotel.service.interfac.IUserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OccupancyRollupsTest {
+
+	private static final String ROOM_TYPE = "Rollup Suite";
+	private static final LocalDate FIRST_NIGHT = LocalDate.now().plusDays(400);
+
+	@Autowired
+	private IBookingService bookingService;
+	@Autowired
+	private IAnalyticsService analyticsService;
+	@Autowired
+	private OccupancyRollups occupancyRollups;
+	@Autowired
+	private RoomRepository roomRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private OutboxDispatcher outboxDispatcher;
+	@Autowired
+	private IUserService userService;
+
+	@Test
+	void bookingsAndCancellationsKeepRollupsEqualToARebuild() {
+		Room room = new Room();
+		room.setRoomType(ROOM_TYPE);
+		room.setRoomPrice(BigDecimal.valueOf(150));
+		Long roomId = roomRepository.save(room).getId();
+
+		User user = new User();
+		user.setEmail("rollups@test.local");
+		user.setName("Rollup Tester");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		Long userId = userRepository.save(user).getId();
+
+		assertThat(book(roomId, userId, 0, 3, 2).getStatusCode()).isEqualTo(200);
+		assertThat(book(roomId, userId, 3, 5, 1).getStatusCode()).isEqualTo(200);
+		Response third = book(roomId, userId, 10, 12, 4);
+		deliverOutbox();
+		assertThat(third.getStatusCode()).isEqualTo(200);
+
+		OccupancyStatsDTO total = totalFor(0, 30);
+		assertThat(total.getRoomNights()).isEqualTo(7);
+		assertThat(total.getGuests()).isEqualTo(3 * 2 + 2 * 1 + 2 * 4);
+		assertThat(total.getRevenue()).isEqualByComparingTo("1050");
+		assertThat(total.getAvailableRoomNights()).isEqualTo(30);
+
+		Long thirdId = bookingRepository.findByBookingConfirmationCode(third.getBookingConfirmationCode()).orElseThrow().getId();
+		assertThat(bookingService.cancelBooking(thirdId).getStatusCode()).isEqualTo(200);
+		deliverOutbox();
+		OccupancyStatsDTO afterCancel = totalFor(0, 30);
+		assertThat(afterCancel.getRoomNights()).isEqualTo(5);
+		assertThat(afterCancel.getGuests()).isEqualTo(8);
+
+		assertThat(occupancyRollups.rebuild(FIRST_NIGHT.minusDays(40), FIRST_NIGHT.plusDays(40))).isNotNull();
+		OccupancyStatsDTO rebuilt = totalFor(0, 30);
+		assertThat(rebuilt.getRoomNights()).isEqualTo(afterCancel.getRoomNights());
+		assertThat(rebuilt.getGuests()).isEqualTo(afterCancel.getGuests());
+		assertThat(rebuilt.getRevenue()).isEqualByComparingTo(afterCancel.getRevenue());
+	}
+
+	@Test
+	void rebuildLeavesPendingEventsToTheDispatcher() {
+		Room room = new Room();
+		room.setRoomType("Rollup Pending");
+		room.setRoomPrice(BigDecimal.valueOf(80));
+		Long roomId = roomRepository.save(room).getId();
+		User user = new User();
+		user.setEmail("rollups-pending@test.local");
+		user.setName("Rollup Tester");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		Long userId = userRepository.save(user).getId();
+		LocalDate from = FIRST_NIGHT.plusDays(100);
+
+		Booking booking = new Booking();
+		booking.setCheckInDate(from);
+		booking.setCheckOutDate(from.plusDays(2));
+		booking.setNumOfAdults(1);
+		assertThat(bookingService.saveBooking(roomId, userId, booking).getStatusCode()).isEqualTo(200);
+
+		// The booking is in the table but its event is not delivered yet, so a rebuild must not count it
+		assertThat(occupancyRollups.rebuild(from, from.plusDays(5))).isNotNull();
+		assertThat(roomNights("Rollup Pending", from, from.plusDays(5))).isZero();
+
+		deliverOutbox();
+		assertThat(roomNights("Rollup Pending", from, from.plusDays(5))).isEqualTo(2);
+		assertThat(occupancyRollups.rebuild(from, from.plusDays(5))).isNotNull();
+		assertThat(roomNights("Rollup Pending", from, from.plusDays(5))).isEqualTo(2);
+	}
+
+	@Test
+	void deletingAUserTakesItsBookingsOutThroughTheOutbox() {
+		Room room = new Room();
+		room.setRoomType("Rollup Deleted User");
+		room.setRoomPrice(BigDecimal.valueOf(70));
+		Long roomId = roomRepository.save(room).getId();
+		User user = new User();
+		user.setEmail("rollups-deleted@test.local");
+		user.setName("Rollup Tester");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		Long userId = userRepository.save(user).getId();
+		LocalDate from = FIRST_NIGHT.plusDays(200);
+
+		Booking booking = new Booking();
+		booking.setCheckInDate(from);
+		booking.setCheckOutDate(from.plusDays(3));
+		booking.setNumOfAdults(2);
+		assertThat(bookingService.saveBooking(roomId, userId, booking).getStatusCode()).isEqualTo(200);
+		deliverOutbox();
+		assertThat(roomNights("Rollup Deleted User", from, from.plusDays(5))).isEqualTo(3);
+
+		assertThat(userService.deleteUser(userId.toString()).getStatusCode()).isEqualTo(200);
+		assertThat(bookingRepository.findByUserIdWithRoom(userId)).isEmpty();
+		deliverOutbox();
+		assertThat(roomNights("Rollup Deleted User", from, from.plusDays(5))).isZero();
+		assertThat(occupancyRollups.rebuild(from, from.plusDays(5))).isNotNull();
+		assertThat(roomNights("Rollup Deleted User", from, from.plusDays(5))).isZero();
+	}
+
+	private void deliverOutbox() {
+		int delivered;
+		do {
+			delivered = outboxDispatcher.dispatchPending();
+		} while (delivered > 0);
+	}
+
+	private long roomNights(String roomType, LocalDate fromDate, LocalDate toDate) {
+		Response response = analyticsService.getOccupancy(fromDate, toDate, roomType, "total");
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		return response.getOccupancyStats().stream().mapToLong(OccupancyStatsDTO::getRoomNights).sum();
+	}
+
+	private Response book(Long roomId, Long userId, int fromDay, int toDay, int adults) {
+		Booking booking = new Booking();
+		booking.setCheckInDate(FIRST_NIGHT.plusDays(fromDay));
+		booking.setCheckOutDate(FIRST_NIGHT.plusDays(toDay));
+		booking.setNumOfAdults(adults);
+		return bookingService.saveBooking(roomId, userId, booking);
+	}
+
+	private OccupancyStatsDTO totalFor(int fromDay, int toDay) {
+		Response response = analyticsService.getOccupancy(FIRST_NIGHT.plusDays(fromDay), FIRST_NIGHT.plusDays(toDay),
+				ROOM_TYPE, "total");
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		List<OccupancyStatsDTO> stats = response.getOccupancyStats();
+		assertThat(stats).hasSize(1);
+		return stats.get(0);
+	}
+}
@@ -0,0 +1,184 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.event.DomainEvent;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OutboxDispatcherTest {
+
+	private static final String LEASE_LOST_ROOM = "Lease Lost Room";
+	private static final String VALID_PAYLOAD = "{\"roomId\":%d,\"roomType\":\"Outbox Room\",\"roomPrice\":10,"
+			+ "\"capacity\":null,\"previousRoomType\":\"Outbox Room\",\"previousRoomPrice\":10}";
+
+	@Autowired
+	private OutboxDispatcher outboxDispatcher;
+	@Autowired
+	private IBookingService bookingService;
+	@Autowired
+	private RoomRepository roomRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// Stands in for another instance that claims the event once this one's lease has run out mid-delivery
+	@TestConfiguration
+	static class LeaseThief {
+
+		@Bean
+		OutboxSubscriber leaseThief(JdbcTemplate jdbcTemplate) {
+			return (eventId, event) -> {
+				if (!(event instanceof DomainEvent.RoomUpdated updated) || !LEASE_LOST_ROOM.equals(updated.roomType())) {
+					return;
+				}
+				jdbcTemplate.update("INSERT INTO daily_room_type_stats (stat_date, room_type, room_nights, guests, revenue) "
+						+ "VALUES (?, ?, 1, 1, 10)", Date.valueOf(LocalDate.now()), LEASE_LOST_ROOM);
+				CompletableFuture.runAsync(() -> jdbcTemplate.update(
+						"UPDATE outbox_events SET locked_by = 'other-instance', locked_until = ? WHERE id = ?",
+						Timestamp.valueOf(LocalDateTime.now().plusMinutes(1)), eventId)).join();
+			};
+		}
+	}
+
+	@Value("${outbox.max-attempts}")
+	private int maxAttempts;
+	@Value("${mail.sink.dir}")
+	private String mailDir;
+
+	@Test
+	void bookingWritesAnEventThatIsDeliveredAfterCommit() throws Exception {
+		Long roomId = newRoom();
+		User user = new User();
+		user.setEmail("outbox@test.local");
+		user.setName("Outbox Tester");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		Long userId = userRepository.save(user).getId();
+
+		Booking booking = new Booking();
+		booking.setCheckInDate(LocalDate.now().plusDays(300));
+		booking.setCheckOutDate(LocalDate.now().plusDays(302));
+		booking.setNumOfAdults(2);
+		Response response = bookingService.saveBooking(roomId, userId, booking);
+		assertThat(response.getStatusCode()).isEqualTo(200);
+
+		Map<String, Object> event = jdbcTemplate.queryForMap(
+				"SELECT id, event_type, status FROM outbox_events WHERE room_id = ?", roomId);
+		assertThat(event.get("EVENT_TYPE")).isEqualTo("BookingCreated");
+		assertThat(event.get("STATUS")).isEqualTo("PENDING");
+
+		drain();
+		long eventId = ((Number) event.get("ID")).longValue();
+		assertThat(status(eventId)).isEqualTo("DONE");
+		Path mail = Paths.get(mailDir, "event-" + eventId + ".eml");
+		assertThat(mail).exists();
+		assertThat(Files.readString(mail)).contains("To: outbox@test.local", response.getBookingConfirmationCode());
+	}
+
+	@Test
+	void aFailingEventHoldsBackItsRoomUntilItIsDeliveredOrGivenUp() {
+		drain();
+		Long blockedRoom = newRoom();
+		Long otherRoom = newRoom();
+		long broken = insertEvent(blockedRoom, "{not json", 0);
+		long after = insertEvent(blockedRoom, VALID_PAYLOAD.formatted(blockedRoom), 0);
+		long other = insertEvent(otherRoom, VALID_PAYLOAD.formatted(otherRoom), 0);
+
+		outboxDispatcher.dispatchPending();
+		assertThat(status(broken)).isEqualTo("PENDING");
+		assertThat(attempts(broken)).isEqualTo(1);
+		assertThat(status(after)).isEqualTo("PENDING");
+		assertThat(attempts(after)).isZero();
+		assertThat(status(other)).isEqualTo("DONE");
+
+		// Fixed on the next attempt: both go out, in order
+		jdbcTemplate.update("UPDATE outbox_events SET payload = ? WHERE id = ?", VALID_PAYLOAD.formatted(blockedRoom), broken);
+		outboxDispatcher.dispatchPending();
+		assertThat(status(broken)).isEqualTo("DONE");
+		assertThat(status(after)).isEqualTo("DONE");
+
+		// An event that keeps failing is parked after max-attempts and stops blocking its room
+		long hopeless = insertEvent(blockedRoom, "{not json", maxAttempts - 1);
+		long next = insertEvent(blockedRoom, VALID_PAYLOAD.formatted(blockedRoom), 0);
+		outboxDispatcher.dispatchPending();
+		assertThat(status(hopeless)).isEqualTo("FAILED");
+		assertThat(status(next)).isEqualTo("DONE");
+	}
+
+	@Test
+	void anEventWhoseLeaseWasTakenOverIsLeftToItsNewHolder() {
+		drain();
+		Long roomId = newRoom();
+		long stolen = insertEvent(roomId, VALID_PAYLOAD.replace("Outbox Room", LEASE_LOST_ROOM).formatted(roomId), 0);
+		long after = insertEvent(roomId, VALID_PAYLOAD.formatted(roomId), 0);
+
+		outboxDispatcher.dispatchPending();
+
+		Map<String, Object> event = jdbcTemplate.queryForMap(
+				"SELECT status, attempts, locked_by, last_error FROM outbox_events WHERE id = ?", stolen);
+		assertThat(event.get("STATUS")).isEqualTo("PENDING");
+		assertThat(((Number) event.get("ATTEMPTS")).intValue()).isZero();
+		assertThat(event.get("LOCKED_BY")).isEqualTo("other-instance");
+		assertThat(event.get("LAST_ERROR")).isNull();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_room_type_stats WHERE room_type = ?",
+				Integer.class, LEASE_LOST_ROOM)).isZero();
+		assertThat(status(after)).isEqualTo("PENDING");
+		assertThat(attempts(after)).isZero();
+	}
+
+	private Long newRoom() {
+		Room room = new Room();
+		room.setRoomType("Outbox Room");
+		room.setRoomPrice(BigDecimal.TEN);
+		return roomRepository.save(room).getId();
+	}
+
+	private long insertEvent(Long roomId, String payload, int attempts) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.update("INSERT INTO outbox_events (event_type, room_id, payload, status, attempts, next_attempt_at, created_at) "
+				+ "VALUES ('RoomUpdated', ?, ?, 'PENDING', ?, ?, ?)", roomId, payload, attempts, now, now);
+		return jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events WHERE room_id = ?", Long.class, roomId);
+	}
+
+	private String status(long eventId) {
+		return jdbcTemplate.queryForObject("SELECT status FROM outbox_events WHERE id = ?", String.class, eventId);
+	}
+
+	private int attempts(long eventId) {
+		return jdbcTemplate.queryForObject("SELECT attempts FROM outbox_events WHERE id = ?", Integer.class, eventId);
+	}
+
+	private void drain() {
+		int delivered;
+		do {
+			delivered = outboxDispatcher.dispatchPending();
+		} while (delivered > 0);
+	}
+}
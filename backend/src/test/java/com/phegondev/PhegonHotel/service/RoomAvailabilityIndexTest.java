@@ -0,0 +1,143 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityIndexTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	@Mock
+	private RoomRepository roomRepository;
+	@Mock
+	private BookingRepository bookingRepository;
+	@InjectMocks
+	private RoomAvailabilityIndex index;
+
+	@Test
+	void findsRoomsOfTheAskedTypeThatAreFreeEveryNight() {
+		load(rows(new Object[]{1L, "Deluxe Suite"}, new Object[]{2L, "Single"}, new Object[]{3L, "Suite"}),
+				rows(new Object[]{3L, day(10), day(12)}));
+
+		assertThat(index.findAvailableRoomIds(day(11), day(13), "suite")).containsExactly(1L);
+		// Nights are half-open, so a stay starting on the checkout day fits
+		assertThat(index.findAvailableRoomIds(day(12), day(14), "SUITE")).containsExactlyInAnyOrder(1L, 3L);
+		assertThat(index.findAvailableRoomIds(day(8), day(10), null)).containsExactlyInAnyOrder(1L, 2L, 3L);
+	}
+
+	@Test
+	void leavesDatesItCannotAnswerToTheDatabase() {
+		assertThat(index.findAvailableRoomIds(day(1), day(2), null)).isNull();
+
+		load(rows(new Object[]{1L, "Single"}), rows());
+
+		assertThat(index.findAvailableRoomIds(day(1), day(2), null)).containsExactly(1L);
+		assertThat(index.findAvailableRoomIds(day(-1), day(2), null)).isNull();
+		assertThat(index.findAvailableRoomIds(day(2), day(2), null)).isNull();
+		assertThat(index.findAvailableRoomIds(day(700), day(RoomAvailabilityIndex.HORIZON_DAYS + 1), null)).isNull();
+	}
+
+	@Test
+	void markBookedAndMarkReleasedFlipOnlyTheirNights() {
+		load(rows(new Object[]{1L, "Single"}), rows());
+
+		index.markBooked(1L, day(5), day(8));
+		assertThat(index.findAvailableRoomIds(day(7), day(9), null)).isEmpty();
+		assertThat(index.findAvailableRoomIds(day(8), day(9), null)).containsExactly(1L);
+
+		index.markBooked(1L, day(8), day(10));
+		index.markReleased(1L, day(5), day(8));
+		assertThat(index.findAvailableRoomIds(day(5), day(8), null)).containsExactly(1L);
+		assertThat(index.findAvailableRoomIds(day(9), day(10), null)).isEmpty();
+
+		// Unknown rooms are ignored rather than added
+		index.markBooked(99L, day(1), day(2));
+		assertThat(index.findAvailableRoomIds(day(1), day(2), null)).containsExactly(1L);
+	}
+
+	@Test
+	void putRoomAddsNewRoomsAndKeepsBookedNightsOnATypeChange() {
+		load(rows(new Object[]{1L, "Single"}), rows(new Object[]{1L, day(3), day(4)}));
+
+		index.putRoom(room(2L, "Suite"));
+		assertThat(index.findAvailableRoomIds(day(3), day(4), "suite")).containsExactly(2L);
+
+		index.putRoom(room(1L, "Suite"));
+		assertThat(index.findAvailableRoomIds(day(3), day(4), "suite")).containsExactly(2L);
+		assertThat(index.findAvailableRoomIds(day(4), day(5), "suite")).containsExactlyInAnyOrder(1L, 2L);
+		assertThat(index.findAvailableRoomIds(day(4), day(5), "single")).isEmpty();
+
+		index.removeRoom(2L);
+		assertThat(index.findAvailableRoomIds(day(4), day(5), null)).containsExactly(1L);
+	}
+
+	@Test
+	void aReloadPicksUpChangesMadeByOtherInstances() {
+		when(roomRepository.findAllRoomIdsAndTypes())
+				.thenReturn(rows(new Object[]{1L, "Single"}, new Object[]{2L, "Single"}))
+				.thenReturn(rows(new Object[]{1L, "Single"}, new Object[]{3L, "Single"}));
+		when(bookingRepository.findBookedRangesEndingAfter(any()))
+				.thenReturn(rows(new Object[]{1L, day(1), day(3)}))
+				.thenReturn(rows(new Object[]{3L, day(2), day(4)}));
+
+		index.rebuild();
+		assertThat(index.findAvailableRoomIds(day(2), day(3), null)).containsExactly(2L);
+
+		// Another instance cancelled room 1's stay, deleted room 2, added room 3 and booked it
+		index.rebuild();
+		assertThat(index.findAvailableRoomIds(day(2), day(3), null)).containsExactly(1L);
+	}
+
+	@Test
+	void changesMadeWhileAReloadReadsTheDatabaseSurviveIt() {
+		when(roomRepository.findAllRoomIdsAndTypes()).thenReturn(rows(new Object[]{1L, "Single"}, new Object[]{2L, "Single"}));
+		when(bookingRepository.findBookedRangesEndingAfter(any()))
+				.thenReturn(rows())
+				.thenAnswer(invocation -> {
+					// Committed after the reload's query took its snapshot
+					index.markBooked(2L, day(6), day(7));
+					return rows();
+				});
+
+		index.rebuild();
+		index.rebuild();
+
+		assertThat(index.findAvailableRoomIds(day(6), day(7), null)).containsExactly(1L);
+	}
+
+	private void load(List<Object[]> roomRows, List<Object[]> bookingRows) {
+		when(roomRepository.findAllRoomIdsAndTypes()).thenReturn(roomRows);
+		when(bookingRepository.findBookedRangesEndingAfter(any())).thenReturn(bookingRows);
+		index.rebuild();
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return Arrays.asList(rows);
+	}
+
+	private static LocalDate day(int days) {
+		return TODAY.plusDays(days);
+	}
+
+	private static Room room(Long id, String roomType) {
+		Room room = new Room();
+		room.setId(id);
+		room.setRoomType(roomType);
+		return room;
+	}
+}
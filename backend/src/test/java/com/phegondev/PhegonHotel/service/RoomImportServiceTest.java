@@ -0,0 +1,89 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.dto.RoomImportEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RoomImportServiceTest {
+
+	@Autowired
+	private RoomImportService roomImportService;
+
+	@TempDir
+	private Path dir;
+
+	@Test
+	void archiveCarriesTheManifestAndThePhotosItNames() throws Exception {
+		Path archive = zip(Map.of(
+				"manifest.csv", "roomType,roomPrice,photo\nArchive Suite,120,suite.jpg\nArchive Suite,130,missing.jpg\n",
+				"suite.jpg", "photo bytes " + UUID.randomUUID()));
+		List<RoomImportEvent> events = new ArrayList<>();
+
+		RoomImportEvent summary = roomImportService.importArchive(archive, events::add);
+
+		assertThat(summary.getImported()).isEqualTo(1L);
+		assertThat(summary.getFailed()).isEqualTo(1L);
+		assertThat(events).anySatisfy(event -> assertThat(event.getMessage()).isEqualTo("photo missing.jpg is not in the zip"));
+	}
+
+	@Test
+	void archiveWithoutAManifestIsRejected() throws Exception {
+		Path archive = zip(Map.of("rooms.txt", "roomType,roomPrice\n"));
+		List<RoomImportEvent> events = new ArrayList<>();
+
+		RoomImportEvent summary = roomImportService.importArchive(archive, events::add);
+
+		assertThat(summary.getImported()).isZero();
+		assertThat(events.get(0).getMessage()).startsWith("Archive must contain manifest.csv");
+	}
+
+	@Test
+	void bodyThatIsNotAZipIsRejected() throws Exception {
+		Path upload = Files.writeString(dir.resolve("upload.zip"), "roomType,roomPrice\n");
+		List<RoomImportEvent> events = new ArrayList<>();
+
+		RoomImportEvent summary = roomImportService.importArchive(upload, events::add);
+
+		assertThat(summary.getFailed()).isEqualTo(1L);
+		assertThat(events.get(0).getMessage()).isEqualTo("Upload is not a readable zip archive");
+	}
+
+	@Test
+	void plainManifestNamingAPhotoReportsThatNoZipWasSent() throws Exception {
+		Path manifest = Files.writeString(dir.resolve("upload.manifest"), "{\"roomType\":\"Plain Suite\",\"roomPrice\":90,\"photo\":\"a.jpg\"}\n");
+		List<RoomImportEvent> events = new ArrayList<>();
+
+		RoomImportEvent summary = roomImportService.importRooms(manifest, "manifest.ndjson", events::add);
+
+		assertThat(summary.getFailed()).isEqualTo(1L);
+		assertThat(events.get(0).getMessage()).isEqualTo("photo a.jpg given but the manifest was not uploaded in a zip");
+	}
+
+	private Path zip(Map<String, String> entries) throws Exception {
+		Path archive = dir.resolve(UUID.randomUUID() + ".zip");
+		try (OutputStream file = Files.newOutputStream(archive); ZipOutputStream out = new ZipOutputStream(file)) {
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				out.putNextEntry(new ZipEntry(entry.getKey()));
+				out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+		}
+		return archive;
+	}
+}
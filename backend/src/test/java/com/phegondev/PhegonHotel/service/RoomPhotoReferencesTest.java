@@ -0,0 +1,68 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.repo.ImageBlobRepository;
+import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A room type longer than the column makes the insert fail inside the room's transaction
+@SpringBootTest
+class RoomPhotoReferencesTest {
+
+	private static final String TOO_LONG_ROOM_TYPE = "x".repeat(300);
+
+	@Autowired
+	private IRoomService roomService;
+	@Autowired
+	private ImageBlobRepository imageBlobRepository;
+
+	@Value("${file.upload.dir}")
+	private String uploadDir;
+
+	@Test
+	void aFailedRoomSaveLeavesNeitherReferenceNorFile() throws Exception {
+		byte[] bytes = ("failed save " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+
+		assertThat(roomService.addNewRoom(photo(bytes), TOO_LONG_ROOM_TYPE, BigDecimal.TEN, null, null).getStatusCode())
+				.isEqualTo(500);
+
+		String path = blobPath(bytes);
+		assertThat(imageBlobRepository.findById(path)).isEmpty();
+		assertThat(Paths.get(uploadDir).resolve(path)).doesNotExist();
+	}
+
+	@Test
+	void aSharedPhotoKeepsItsCountWhenAnotherRoomFailsToSave() throws Exception {
+		byte[] bytes = ("shared photo " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+		String path = blobPath(bytes);
+
+		assertThat(roomService.addNewRoom(photo(bytes), "Shared Photo Suite", BigDecimal.TEN, null, null).getStatusCode())
+				.isEqualTo(200);
+		assertThat(roomService.addNewRoom(photo(bytes), TOO_LONG_ROOM_TYPE, BigDecimal.TEN, null, null).getStatusCode())
+				.isEqualTo(500);
+
+		assertThat(imageBlobRepository.findById(path)).hasValueSatisfying(blob -> assertThat(blob.getRefCount()).isEqualTo(1));
+		assertThat(Paths.get(uploadDir).resolve(path)).isRegularFile();
+	}
+
+	private static MockMultipartFile photo(byte[] bytes) {
+		return new MockMultipartFile("photo", "photo.jpg", "image/jpeg", bytes);
+	}
+
+	private static String blobPath(byte[] bytes) throws Exception {
+		String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+		return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + ".jpg";
+	}
+}
@@ -0,0 +1,115 @@
+package com.phegondev.PhegonHotel.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Compares the old upload path (multipart spooled to a temp file, then Files.copy to a UUID name)
+ * with the content-addressed path (in-memory part hashed while streamed once into the store).
+ * Not a test: run with
+ * {@code mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.phegondev.PhegonHotel.service.UploadPathBenchmark}
+ * Optional args: uploads, distinct photos, photo size in KB (defaults 400 40 1536).
+ */
+public class UploadPathBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int uploads = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+		int distinct = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+		int sizeKb = args.length > 2 ? Integer.parseInt(args[2]) : 1536;
+
+		byte[][] photos = new byte[distinct][];
+		Random random = new Random(42);
+		for (int i = 0; i < distinct; i++) {
+			photos[i] = new byte[sizeKb * 1024];
+			random.nextBytes(photos[i]);
+		}
+
+		Path work = Files.createTempDirectory("upload-bench");
+		try {
+			// Warm up both paths so the JIT and the page cache don't favour the second run
+			legacy(photos, uploads / 4, work.resolve("warm-legacy"));
+			hashed(photos, uploads / 4, work.resolve("warm-hashed"));
+
+			print("legacy (spool + copy)", legacy(photos, uploads, work.resolve("legacy")));
+			print("hashed (single pass + dedup)", hashed(photos, uploads, work.resolve("hashed")));
+		} finally {
+			deleteRecursively(work);
+		}
+	}
+
+	private static Result legacy(byte[][] photos, int uploads, Path store) throws IOException {
+		Path spool = Files.createDirectories(store.resolve("spool"));
+		Path images = Files.createDirectories(store.resolve("images"));
+		long[] latencies = new long[uploads];
+		long written = 0;
+		for (int i = 0; i < uploads; i++) {
+			byte[] photo = photos[i % photos.length];
+			long started = System.nanoTime();
+			// What the container does with file-size-threshold=0
+			Path part = spool.resolve(UUID.randomUUID() + ".tmp");
+			Files.write(part, photo);
+			try (InputStream in = Files.newInputStream(part)) {
+				Files.copy(in, images.resolve(UUID.randomUUID() + ".jpg"), StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.delete(part);
+			latencies[i] = System.nanoTime() - started;
+			written += 2L * photo.length;
+		}
+		return new Result(latencies, written, sizeOf(images));
+	}
+
+	private static Result hashed(byte[][] photos, int uploads, Path store) throws IOException {
+		long[] latencies = new long[uploads];
+		long written = 0;
+		for (int i = 0; i < uploads; i++) {
+			byte[] photo = photos[i % photos.length];
+			long started = System.nanoTime();
+			LocalFileStorageService.StoredContent stored =
+					LocalFileStorageService.streamToStore(new ByteArrayInputStream(photo), store, ".jpg");
+			LocalFileStorageService.moveIntoPlace(stored, store);
+			latencies[i] = System.nanoTime() - started;
+			written += stored.size();
+		}
+		return new Result(latencies, written, sizeOf(store));
+	}
+
+	private static void print(String name, Result result) {
+		long[] sorted = result.latencies().clone();
+		Arrays.sort(sorted);
+		System.out.printf("%-30s uploads=%d written=%dMB retained=%dMB p50=%.2fms p95=%.2fms p99=%.2fms%n",
+				name, sorted.length,
+				result.bytesWritten() >> 20, result.bytesRetained() >> 20,
+				percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99));
+	}
+
+	private static double percentile(long[] sorted, int p) {
+		int index = Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1);
+		return sorted[Math.max(0, index)] / 1_000_000.0;
+	}
+
+	private static long sizeOf(Path dir) throws IOException {
+		try (Stream<Path> files = Files.walk(dir)) {
+			return files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+		}
+	}
+
+	private static void deleteRecursively(Path dir) throws IOException {
+		try (Stream<Path> files = Files.walk(dir)) {
+			for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	private record Result(long[] latencies, long bytesWritten, long bytesRetained) {
+	}
+}
@@ -0,0 +1,148 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingServiceConcurrencyTest {
+
+	private static final int ATTEMPTS = 2000;
+	private static final int THREADS = 64;
+	private static final int TURNOVER_ROUNDS = 200;
+
+	@Autowired
+	private IBookingService bookingService;
+	@Autowired
+	private RoomRepository roomRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private RoomAvailabilityIndex availabilityIndex;
+
+	@Test
+	void parallelBookingsForOneRoomNeverOverlap() throws Exception {
+		Long roomId = saveRoom("Stress Suite");
+		Long userId = saveUser("stress@test.local");
+
+		LocalDate firstNight = LocalDate.now().plusDays(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Response>> results = new ArrayList<>();
+		for (int i = 0; i < ATTEMPTS; i++) {
+			Random random = new Random(i);
+			LocalDate checkIn = firstNight.plusDays(random.nextInt(90));
+			LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+			results.add(pool.submit(() -> {
+				start.await();
+				return bookingService.saveBooking(roomId, userId, stay(checkIn, checkOut));
+			}));
+		}
+		start.countDown();
+
+		int admitted = 0;
+		for (Future<Response> result : results) {
+			int statusCode = result.get(2, TimeUnit.MINUTES).getStatusCode();
+			assertThat(statusCode).isIn(200, 404);
+			if (statusCode == 200) {
+				admitted++;
+			}
+		}
+		pool.shutdown();
+
+		List<Booking> saved = bookingRepository.findAll().stream()
+				.filter(booking -> booking.getRoom().getId().equals(roomId))
+				.sorted(Comparator.comparing(Booking::getCheckInDate))
+				.toList();
+		assertThat(admitted).isPositive();
+		assertThat(saved).hasSize(admitted);
+		for (int i = 1; i < saved.size(); i++) {
+			assertThat(saved.get(i).getCheckInDate())
+					.as("booking %s overlaps %s", saved.get(i), saved.get(i - 1))
+					.isAfterOrEqualTo(saved.get(i - 1).getCheckOutDate());
+		}
+	}
+
+	@Test
+	void aCancellationNeverReleasesTheNightsOfTheBookingThatTookThem() throws Exception {
+		Long roomId = saveRoom("Turnover Suite");
+		Long userId = saveUser("turnover@test.local");
+		availabilityIndex.rebuild();
+
+		LocalDate checkIn = LocalDate.now().plusDays(10);
+		LocalDate checkOut = checkIn.plusDays(2);
+		String code = bookingService.saveBooking(roomId, userId, stay(checkIn, checkOut)).getBookingConfirmationCode();
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		for (int round = 0; round < TURNOVER_ROUNDS; round++) {
+			Long bookingId = bookingRepository.findByBookingConfirmationCode(code).orElseThrow().getId();
+			Future<Response> cancel = pool.submit(() -> bookingService.cancelBooking(bookingId));
+			// Rebook the same nights the moment the cancellation frees them
+			Future<Response> rebook = pool.submit(() -> {
+				Response response;
+				do {
+					response = bookingService.saveBooking(roomId, userId, stay(checkIn, checkOut));
+				} while (response.getStatusCode() == 404);
+				return response;
+			});
+
+			assertThat(cancel.get(1, TimeUnit.MINUTES).getStatusCode()).isEqualTo(200);
+			Response rebooked = rebook.get(1, TimeUnit.MINUTES);
+			assertThat(rebooked.getStatusCode()).isEqualTo(200);
+			assertThat(availabilityIndex.findAvailableRoomIds(checkIn, checkOut, "Turnover Suite"))
+					.as("round %d", round)
+					.doesNotContain(roomId);
+			code = rebooked.getBookingConfirmationCode();
+		}
+		pool.shutdown();
+	}
+
+	private Long saveRoom(String roomType) {
+		Room room = new Room();
+		room.setRoomType(roomType);
+		room.setRoomPrice(BigDecimal.valueOf(100));
+		return roomRepository.save(room).getId();
+	}
+
+	private Long saveUser(String email) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName("Stress Tester");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		return userRepository.save(user).getId();
+	}
+
+	private static Booking stay(LocalDate checkIn, LocalDate checkOut) {
+		Booking booking = new Booking();
+		booking.setCheckInDate(checkIn);
+		booking.setCheckOutDate(checkOut);
+		booking.setNumOfAdults(1);
+		return booking;
+	}
+}
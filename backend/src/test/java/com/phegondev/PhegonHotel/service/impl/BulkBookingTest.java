@@ -0,0 +1,201 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.dto.BulkBookingRequest;
+import com.phegondev.PhegonHotel.dto.BulkBookingResult;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BulkBookingTest {
+
+	private static final LocalDate FIRST_NIGHT = LocalDate.now().plusDays(600);
+
+	@Autowired
+	private IBookingService bookingService;
+	@Autowired
+	private RoomRepository roomRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long userId;
+
+	@BeforeEach
+	void seedUser() {
+		User user = new User();
+		user.setEmail(UUID.randomUUID() + "@test.local");
+		user.setName("Bulk Tester");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		userId = userRepository.save(user).getId();
+	}
+
+	@Test
+	void bestEffortBooksValidLinesAndReportsTheOthers() {
+		Long free = room();
+		Long taken = room();
+		Booking existing = new Booking();
+		existing.setCheckInDate(FIRST_NIGHT.plusDays(1));
+		existing.setCheckOutDate(FIRST_NIGHT.plusDays(4));
+		existing.setNumOfAdults(1);
+		assertThat(bookingService.saveBooking(taken, userId, existing).getStatusCode()).isEqualTo(200);
+
+		Response response = bookingService.saveBookings(userId, request(BulkBookingRequest.Mode.BEST_EFFORT,
+				line(free, 0, 2),
+				line(taken, 2, 5),
+				line(free, 5, 5),
+				line(-1L, 0, 2),
+				line(taken, 4, 6)));
+
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		assertThat(response.getMessage()).isEqualTo("Booked 2 of 5 lines");
+		List<BulkBookingResult> results = response.getBulkBookingResults();
+		assertThat(results).extracting(BulkBookingResult::getLine).containsExactly(1, 2, 3, 4, 5);
+		assertThat(results).extracting(BulkBookingResult::getError).containsExactly(
+				null,
+				"Room not Available for selected date range",
+				"Check out date must come after check in date",
+				"Room Not Found",
+				null);
+		assertThat(results.get(1).getBookingId()).isNull();
+		assertThat(bookingCount(free)).isEqualTo(1);
+		assertThat(bookingCount(taken)).isEqualTo(2);
+	}
+
+	@Test
+	void allOrNothingBooksNothingWhenALineFails() {
+		Long roomId = room();
+
+		Response response = bookingService.saveBookings(userId, request(BulkBookingRequest.Mode.ALL_OR_NOTHING,
+				line(roomId, 0, 2),
+				line(-1L, 0, 2)));
+
+		assertThat(response.getStatusCode()).isEqualTo(400);
+		assertThat(response.getBulkBookingResults()).extracting(BulkBookingResult::getBookingId).containsOnlyNulls();
+		assertThat(bookingCount(roomId)).isZero();
+	}
+
+	@Test
+	void linesOfOneRequestAreCheckedAgainstEachOther() {
+		Long roomId = room();
+
+		Response response = bookingService.saveBookings(userId, request(BulkBookingRequest.Mode.BEST_EFFORT,
+				line(roomId, 0, 3),
+				line(roomId, 2, 4),
+				line(roomId, 3, 5)));
+
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		assertThat(response.getBulkBookingResults()).extracting(BulkBookingResult::getError)
+				.containsExactly(null, "Overlaps line 1 of this request", null);
+		assertThat(bookingCount(roomId)).isEqualTo(2);
+		assertThat(nightCount(roomId)).isEqualTo(5);
+	}
+
+	@Test
+	void aRoomNightTakenAfterTheCheckRollsBackTheWholeBatch() {
+		Long first = room();
+		Long second = room();
+		// What another instance commits between our conflict check and our insert looks like this row
+		jdbcTemplate.update("INSERT INTO room_nights (room_id, night, booking_id) VALUES (?, ?, NULL)",
+				second, Date.valueOf(FIRST_NIGHT.plusDays(1)));
+
+		Response response = bookingService.saveBookings(userId, request(BulkBookingRequest.Mode.ALL_OR_NOTHING,
+				line(first, 0, 3),
+				line(second, 0, 3)));
+
+		assertThat(response.getStatusCode()).isEqualTo(404);
+		assertThat(response.getMessage()).contains("no rooms were booked");
+		assertThat(bookingCount(first)).isZero();
+		assertThat(bookingCount(second)).isZero();
+		assertThat(nightCount(first)).isZero();
+		assertThat(nightCount(second)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE room_id IN (?, ?)",
+				Integer.class, first, second)).isZero();
+	}
+
+	@Test
+	void generatedIdsAreMappedBackToTheirLines() {
+		Long a = room();
+		Long b = room();
+		Long c = room();
+
+		Response response = bookingService.saveBookings(userId, request(BulkBookingRequest.Mode.BEST_EFFORT,
+				line(c, 6, 7),
+				line(a, 0, 2),
+				line(b, 0, 0),
+				line(b, 3, 8),
+				line(a, 2, 4)));
+
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		List<BulkBookingResult> results = response.getBulkBookingResults();
+		assertThat(results.get(2).getError()).isNotNull();
+		int[][] expected = {{6, 7}, {0, 2}, null, {3, 8}, {2, 4}};
+		for (int i = 0; i < results.size(); i++) {
+			BulkBookingResult result = results.get(i);
+			if (expected[i] == null) {
+				continue;
+			}
+			String stored = jdbcTemplate.queryForObject(
+					"SELECT room_id, check_in_date, check_out_date, booking_confirmation_code FROM bookings WHERE id = ?",
+					(rs, row) -> rs.getLong("room_id") + " " + rs.getObject("check_in_date", LocalDate.class) + " "
+							+ rs.getObject("check_out_date", LocalDate.class) + " " + rs.getString("booking_confirmation_code"),
+					result.getBookingId());
+			assertThat(stored).as("line %d", result.getLine()).isEqualTo(result.getRoomId() + " "
+					+ FIRST_NIGHT.plusDays(expected[i][0]) + " " + FIRST_NIGHT.plusDays(expected[i][1]) + " "
+					+ result.getBookingConfirmationCode());
+			assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_nights WHERE booking_id = ?",
+					Integer.class, result.getBookingId())).isEqualTo(expected[i][1] - expected[i][0]);
+		}
+	}
+
+	private Long room() {
+		Room room = new Room();
+		room.setRoomType("Bulk Suite");
+		room.setRoomPrice(BigDecimal.valueOf(90));
+		return roomRepository.save(room).getId();
+	}
+
+	private static BulkBookingRequest request(BulkBookingRequest.Mode mode, BulkBookingRequest.Line... lines) {
+		BulkBookingRequest request = new BulkBookingRequest();
+		request.setMode(mode);
+		request.setLines(List.of(lines));
+		return request;
+	}
+
+	private static BulkBookingRequest.Line line(Long roomId, int fromDay, int toDay) {
+		BulkBookingRequest.Line line = new BulkBookingRequest.Line();
+		line.setRoomId(roomId);
+		line.setCheckInDate(FIRST_NIGHT.plusDays(fromDay));
+		line.setCheckOutDate(FIRST_NIGHT.plusDays(toDay));
+		line.setNumOfAdults(2);
+		return line;
+	}
+
+	private int bookingCount(Long roomId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE room_id = ?", Integer.class, roomId);
+	}
+
+	private int nightCount(Long roomId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_nights WHERE room_id = ?", Integer.class, roomId);
+	}
+}
@@ -0,0 +1,115 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import com.phegondev.PhegonHotel.service.interfac.IUserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ReadPathStatementCountTest {
+
+	private static final int BOOKINGS = 5;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private IUserService userService;
+	@Autowired
+	private IBookingService bookingService;
+	@Autowired
+	private IRoomService roomService;
+	@Autowired
+	private RoomRepository roomRepository;
+	@Autowired
+	private UserRepository userRepository;
+
+	private Long userId;
+	private Long roomId;
+	private String confirmationCode;
+
+	@BeforeEach
+	void seedBookingsAcrossRooms() {
+		User user = new User();
+		user.setEmail(UUID.randomUUID() + "@test.local");
+		user.setName("Statement Counter");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		userId = userRepository.save(user).getId();
+
+		LocalDate checkIn = LocalDate.now().plusDays(10);
+		for (int i = 0; i < BOOKINGS; i++) {
+			Room room = new Room();
+			room.setRoomType("Count " + i);
+			room.setRoomPrice(BigDecimal.valueOf(50 + i));
+			roomId = roomRepository.save(room).getId();
+
+			Booking booking = new Booking();
+			booking.setCheckInDate(checkIn);
+			booking.setCheckOutDate(checkIn.plusDays(2));
+			booking.setNumOfAdults(2);
+			Response saved = bookingService.saveBooking(roomId, userId, booking);
+			assertThat(saved.getStatusCode()).isEqualTo(200);
+			confirmationCode = saved.getBookingConfirmationCode();
+		}
+	}
+
+	private Statistics statistics() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+
+	@Test
+	void userBookingHistoryLoadsUserThenBookingsWithRooms() {
+		Statistics statistics = statistics();
+
+		Response response = userService.getUserBookingHistory(String.valueOf(userId));
+
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		assertThat(response.getUser().getBookings()).hasSize(BOOKINGS)
+				.allSatisfy(booking -> assertThat(booking.getRoom()).isNotNull());
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void bookingByConfirmationCodeIsOneStatement() {
+		Statistics statistics = statistics();
+
+		Response response = bookingService.findBookingByConfirmationCode(confirmationCode);
+
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		assertThat(response.getBooking().getUser().getId()).isEqualTo(userId);
+		assertThat(response.getBooking().getRoom().getId()).isEqualTo(roomId);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void roomByIdWithBookingsIsOneStatement() {
+		Statistics statistics = statistics();
+
+		Response response = roomService.getRoomById(roomId);
+
+		assertThat(response.getStatusCode()).isEqualTo(200);
+		assertThat(response.getRoom().getBookings()).hasSize(1);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
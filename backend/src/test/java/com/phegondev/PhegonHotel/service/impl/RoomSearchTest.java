@@ -0,0 +1,171 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.RoomSearchCriteria;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Criteria values are rendered as literals so the SQL Hibernate generates can be EXPLAINed as captured
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline")
+class RoomSearchTest {
+
+	private static final int ROOMS = 1200;
+	private static final int PAGE_SIZE = 25;
+	private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+	private static final List<String> TYPES = List.of("Search Single", "Search Deluxe", "Search Suite");
+	private static boolean seeded;
+
+	@Autowired
+	private IRoomService roomService;
+	@Autowired
+	private IBookingService bookingService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@TestConfiguration
+	static class StatementCapture {
+
+		@Bean
+		HibernatePropertiesCustomizer captureStatements() {
+			return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+				STATEMENTS.add(sql);
+				return sql;
+			});
+		}
+	}
+
+	@BeforeEach
+	void seedRooms() {
+		if (seeded) {
+			return;
+		}
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < ROOMS; i++) {
+			Integer capacity = i % 10 == 0 ? null : 1 + i % 4;
+			rows.add(new Object[]{TYPES.get(i % 3), BigDecimal.valueOf(50 + (i % 40) * 10L), capacity});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO rooms (room_type, room_price, capacity) VALUES (?, ?, ?)", rows);
+		jdbcTemplate.execute("ANALYZE");
+		seeded = true;
+	}
+
+	@Test
+	void pagesThroughMatchingRoomsInPriceOrder() {
+		List<RoomDTO> found = searchAllPages(criteria(), 25);
+
+		List<Map<String, Object>> expected = jdbcTemplate.queryForList(
+				"SELECT id FROM rooms WHERE room_type IN ('Search Deluxe', 'Search Suite') AND room_price BETWEEN 100 AND 300 "
+						+ "AND (capacity IS NULL OR capacity >= 3) ORDER BY room_price, id");
+		assertThat(found).extracting(RoomDTO::getId)
+				.containsExactlyElementsOf(expected.stream().map(row -> ((Number) row.get("ID")).longValue()).toList());
+		assertThat(found).isSortedAccordingTo(Comparator.comparing(RoomDTO::getRoomPrice));
+	}
+
+	@Test
+	void descendingSortAndBookedRoomsAreHonoured() {
+		RoomSearchCriteria criteria = criteria();
+		RoomDTO cheapest = roomService.searchRooms(criteria).getRoomList().get(0);
+
+		User user = new User();
+		user.setEmail("search@test.local");
+		user.setName("Search Tester");
+		user.setPhoneNumber("0000000000");
+		user.setPassword("secret");
+		user.setRole("USER");
+		Long userId = userRepository.save(user).getId();
+		Booking booking = new Booking();
+		booking.setCheckInDate(LocalDate.now().plusDays(10));
+		booking.setCheckOutDate(LocalDate.now().plusDays(12));
+		booking.setNumOfAdults(2);
+		assertThat(bookingService.saveBooking(cheapest.getId(), userId, booking).getStatusCode()).isEqualTo(200);
+
+		criteria.setCheckInDate(LocalDate.now().plusDays(11));
+		criteria.setCheckOutDate(LocalDate.now().plusDays(14));
+		criteria.setSort("price_desc");
+		List<RoomDTO> found = searchAllPages(criteria, 40);
+
+		assertThat(found).extracting(RoomDTO::getId).doesNotContain(cheapest.getId());
+		assertThat(found).isSortedAccordingTo(Comparator.comparing(RoomDTO::getRoomPrice).reversed());
+		assertThat(found).allSatisfy(room -> assertThat(room.getRoomType()).isIn("Search Deluxe", "Search Suite"));
+	}
+
+	@Test
+	void searchPredicatesUseTheRoomIndexes() {
+		assertThat(explainSearch(criteria())).containsIgnoringCase("idx_rooms_type_price");
+
+		RoomSearchCriteria byPrice = new RoomSearchCriteria();
+		byPrice.setMinPrice(BigDecimal.valueOf(100));
+		byPrice.setMaxPrice(BigDecimal.valueOf(110));
+		assertThat(explainSearch(byPrice)).containsIgnoringCase("idx_rooms_price");
+
+		// Each candidate room is probed through the room_nights primary key, not a scan of bookings
+		RoomSearchCriteria byDates = criteria();
+		byDates.setCheckInDate(LocalDate.now().plusDays(30));
+		byDates.setCheckOutDate(LocalDate.now().plusDays(33));
+		assertThat(explainSearch(byDates)).containsIgnoringCase("room_nights").containsIgnoringCase("primary_key");
+	}
+
+	// EXPLAINs the rooms query searchRooms sent; only the page limit is still a bind parameter
+	private String explainSearch(RoomSearchCriteria criteria) {
+		criteria.setSize(PAGE_SIZE);
+		STATEMENTS.clear();
+		assertThat(roomService.searchRooms(criteria).getStatusCode()).isEqualTo(200);
+		String sql = STATEMENTS.stream()
+				.filter(statement -> statement.toLowerCase(Locale.ROOT).contains(" from rooms "))
+				.reduce((first, second) -> second)
+				.orElseThrow();
+		Object[] limit = Collections.nCopies((int) sql.chars().filter(c -> c == '?').count(), PAGE_SIZE + 1).toArray();
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, limit);
+	}
+
+	private static RoomSearchCriteria criteria() {
+		RoomSearchCriteria criteria = new RoomSearchCriteria();
+		criteria.setRoomType(List.of("Search Deluxe", "Search Suite"));
+		criteria.setMinPrice(BigDecimal.valueOf(100));
+		criteria.setMaxPrice(BigDecimal.valueOf(300));
+		criteria.setGuests(3);
+		return criteria;
+	}
+
+	private List<RoomDTO> searchAllPages(RoomSearchCriteria criteria, int pageSize) {
+		List<RoomDTO> found = new ArrayList<>();
+		criteria.setSize(pageSize);
+		criteria.setCursor(null);
+		do {
+			Response response = roomService.searchRooms(criteria);
+			assertThat(response.getStatusCode()).isEqualTo(200);
+			assertThat(response.getRoomList()).hasSizeLessThanOrEqualTo(pageSize);
+			found.addAll(response.getRoomList());
+			criteria.setCursor(response.getNextCursor());
+		} while (criteria.getCursor() != null);
+		return found;
+	}
+}
@@ -0,0 +1,59 @@
+package com.phegondev.PhegonHotel.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+	private static List<List<String>> readAll(String text) throws IOException {
+		CsvReader reader = new CsvReader(new StringReader(text));
+		List<List<String>> records = new ArrayList<>();
+		List<String> record;
+		while ((record = reader.next()) != null) {
+			records.add(record);
+		}
+		return records;
+	}
+
+	@Test
+	void readsPlainRecordsWithAnyLineEnding() throws IOException {
+		assertThat(readAll("a,b\r\nc,d\ne,f"))
+				.containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"));
+	}
+
+	@Test
+	void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+		assertThat(readAll("\"Deluxe, sea view\",\"say \"\"hi\"\"\",\"two\r\nlines\"\n"))
+				.containsExactly(List.of("Deluxe, sea view", "say \"hi\"", "two\r\nlines"));
+	}
+
+	@Test
+	void keepsEmptyFieldsAndSkipsBlankLines() throws IOException {
+		assertThat(readAll("a,,c\n\n,\n")).containsExactly(List.of("a", "", "c"), List.of("", ""));
+	}
+
+	@Test
+	void unterminatedQuoteFails() {
+		assertThatThrownBy(() -> readAll("a,\"open\n")).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void writerOutputReadsBack() throws IOException {
+		StringWriter out = new StringWriter();
+		CsvWriter writer = new CsvWriter(out);
+		writer.write(Arrays.asList(1L, "Suite, \"king\"", null, "line\nbreak"));
+		writer.write(List.of("plain"));
+
+		assertThat(readAll(out.toString()))
+				.containsExactly(List.of("1", "Suite, \"king\"", "", "line\nbreak"), List.of("plain"));
+	}
+}
@@ -0,0 +1,63 @@
+package com.phegondev.PhegonHotel.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DateRangeTest {
+
+	private static final LocalDate D1 = LocalDate.of(2030, 1, 1);
+
+	private static DateRange range(int fromDay, int toDay) {
+		return DateRange.of(D1.plusDays(fromDay), D1.plusDays(toDay));
+	}
+
+	@Test
+	void backToBackStaysDoNotOverlap() {
+		assertThat(range(0, 3).overlaps(range(3, 5))).isFalse();
+		assertThat(range(3, 5).overlaps(range(0, 3))).isFalse();
+	}
+
+	@Test
+	void partialContainedAndEqualRangesOverlap() {
+		assertThat(range(0, 3).overlaps(range(2, 5))).isTrue();
+		assertThat(range(2, 5).overlaps(range(0, 3))).isTrue();
+		assertThat(range(0, 10).overlaps(range(2, 5))).isTrue();
+		assertThat(range(2, 5).overlaps(range(0, 10))).isTrue();
+		assertThat(range(2, 5).overlaps(range(2, 5))).isTrue();
+		assertThat(range(2, 5).overlaps(range(2, 3))).isTrue();
+		assertThat(range(2, 5).overlaps(range(4, 5))).isTrue();
+	}
+
+	@Test
+	void disjointRangesDoNotOverlap() {
+		assertThat(range(0, 2).overlaps(range(5, 7))).isFalse();
+		assertThat(range(5, 7).overlaps(range(0, 2))).isFalse();
+	}
+
+	@Test
+	void emptyRangeOverlapsNothing() {
+		assertThat(range(3, 3).isEmpty()).isTrue();
+		assertThat(range(3, 3).overlaps(range(0, 10))).isFalse();
+		assertThat(range(0, 10).overlaps(range(3, 3))).isFalse();
+	}
+
+	@Test
+	void countsNightsAndContainsIsHalfOpen() {
+		DateRange stay = range(1, 4);
+		assertThat(stay.nights()).isEqualTo(3);
+		assertThat(stay.contains(D1.plusDays(1))).isTrue();
+		assertThat(stay.contains(D1.plusDays(3))).isTrue();
+		assertThat(stay.contains(D1.plusDays(4))).isFalse();
+		assertThat(stay.contains(D1)).isFalse();
+	}
+
+	@Test
+	void rejectsReversedOrMissingDates() {
+		assertThatThrownBy(() -> range(4, 1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> DateRange.of(null, D1)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,46 @@
+package com.phegondev.PhegonHotel.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayBitmapTest {
+
+	@Test
+	void nextAndPreviousBitsCrossWordBoundaries() {
+		DayBitmap bitmap = new DayBitmap(200);
+		bitmap.set(60, 70);
+		bitmap.set(130, 131);
+
+		assertThat(bitmap.nextSetBit(0)).isEqualTo(60);
+		assertThat(bitmap.nextSetBit(70)).isEqualTo(130);
+		assertThat(bitmap.nextSetBit(131)).isEqualTo(200);
+		assertThat(bitmap.nextClearBit(60)).isEqualTo(70);
+		assertThat(bitmap.previousSetBit(129)).isEqualTo(69);
+		assertThat(bitmap.previousSetBit(59)).isEqualTo(-1);
+	}
+
+	@Test
+	void clearRunsSkipBookedStretches() {
+		DayBitmap bitmap = new DayBitmap(100);
+		bitmap.set(10, 20);
+		bitmap.set(23, 30);
+
+		// The 3-night gap at [20, 23) fits a 3-night stay but not a 4-night one
+		assertThat(bitmap.nextClearRun(12, 3)).isEqualTo(20);
+		assertThat(bitmap.nextClearRun(12, 4)).isEqualTo(30);
+		assertThat(bitmap.previousClearRun(25, 3)).isEqualTo(20);
+		assertThat(bitmap.previousClearRun(25, 4)).isEqualTo(6);
+	}
+
+	@Test
+	void clearRunsStayInsideTheBitmap() {
+		DayBitmap bitmap = new DayBitmap(10);
+		bitmap.set(0, 2);
+
+		assertThat(bitmap.nextClearRun(5, 5)).isEqualTo(5);
+		assertThat(bitmap.nextClearRun(6, 5)).isEqualTo(-1);
+		assertThat(bitmap.previousClearRun(9, 8)).isEqualTo(2);
+		assertThat(bitmap.previousClearRun(9, 9)).isEqualTo(-1);
+	}
+}
@@ -24,6 +24,7 @@ const RoomDetailsPage = () => {
   const [showMessage, setShowMessage] = useState(false); // State variable to control message visibility
   const [confirmationCode, setConfirmationCode] = useState(""); // State variable for booking confirmation code
   const [errorMessage, setErrorMessage] = useState(""); // State variable for error message
+  const [dateSuggestions, setDateSuggestions] = useState([]); // Free alternatives returned when the room is taken
 
   // Function to convert USD to THB
   const convertToTHB = (usdAmount) => {
@@ -133,10 +134,22 @@ const RoomDetailsPage = () => {
       }
     } catch (error) {
       setErrorMessage(error.response?.data?.message || error.message);
+      setDateSuggestions(error.response?.data?.dateSuggestions || []);
       setTimeout(() => setErrorMessage(""), 5000); // Clear error message after 5 seconds
     }
   };
 
+  // Picks a suggested stay: same room fills in the dates, another room of the same type opens that room
+  const handleSuggestion = (suggestion) => {
+    setDateSuggestions([]);
+    if (!suggestion.sameRoom) {
+      navigate(`/room-details-book/${suggestion.roomId}`);
+      return;
+    }
+    setCheckInDate(new Date(`${suggestion.checkInDate}T00:00:00`));
+    setCheckOutDate(new Date(`${suggestion.checkOutDate}T00:00:00`));
+  };
+
   if (isLoading) {
     return <p className="room-detail-loading">Loading room details...</p>;
   }
@@ -161,6 +174,24 @@ const RoomDetailsPage = () => {
         </p>
       )}
       {errorMessage && <p className="error-message text-center mx-auto">{errorMessage}</p>}
+      {dateSuggestions.length > 0 && (
+        <div className="mb-6 mx-auto text-center">
+          <p className="text-white/80 mb-2">These stays are free:</p>
+          <div className="flex flex-wrap gap-2 justify-center">
+            {dateSuggestions.map((suggestion) => (
+              <button
+                key={`${suggestion.roomId}-${suggestion.checkInDate}`}
+                className="btn-outline"
+                onClick={() => handleSuggestion(suggestion)}
+                type="button"
+              >
+                {suggestion.checkInDate} to {suggestion.checkOutDate}
+                {suggestion.sameRoom ? "" : ` (room ${suggestion.roomId})`}
+              </button>
+            ))}
+          </div>
+        </div>
+      )}
       <h2 className="text-3xl font-display font-bold text-gold-400 mb-6 flex items-center gap-2 justify-center mx-auto">
         Room Details
         <svg className="h-7 w-7 text-gold-400" fill="none" viewBox="0 0 24 24" stroke="currentColor"><path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M13 16h-1v-4h-1m1-4h.01" /></svg>
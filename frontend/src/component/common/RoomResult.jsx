@@ -32,7 +32,7 @@ const RoomResult = ({ roomSearchResults }) => {
             <div className="aspect-video w-full overflow-hidden relative group">
               <img
                 className="w-full h-full object-cover transition-transform duration-700 group-hover:scale-110"
-                src={ApiService.getImageUrl(room.roomPhotoUrl)}
+                src={ApiService.getImageUrl(room.roomPhotoUrls?.card || room.roomPhotoUrl)}
                 alt={room.roomType}
                 onError={(e) => {
                   e.target.onerror = null;
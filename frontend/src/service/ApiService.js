@@ -1,5 +1,8 @@
 import axios from "axios";
 
+// The API is on another port, so cookies (the backend's replica_sticky) are only sent with credentials
+axios.defaults.withCredentials = true;
+
 export default class ApiService {
   static BASE_URL = "http://localhost:4040";
 